@@ -28,6 +28,10 @@ export class SOAudio extends LitElement {
             target: {
               	type: String,
               	value: ""
+            },
+            timeslice: {
+              	type: Number,
+              	value: 0
             }
         }
     }
@@ -93,22 +97,52 @@ export class SOAudio extends LitElement {
    		}).then(response => console.log(response));
     }
 
+    _saveSlice(data, last) {
+        let name = "slice-" + (this.sliceSeq++) + (last ? "-last" : "");
+        // Retried with back-off; if it still fails, the server is told that the slice is lost so that it can abort
+        let post = (blob, fileName, retry, delay) => {
+            let formData = new FormData();
+            formData.append("data", blob, fileName);
+            let again = () => retry > 0
+                ? new Promise(resolve => setTimeout(resolve, delay)).then(() => post(blob, fileName, retry - 1, delay * 2))
+                : Promise.reject();
+            return fetch(this.target, { method: "post", body: formData })
+                .then(response => response.ok ? null : again(), again);
+        };
+        this.posting = (this.posting || Promise.resolve()).then(() => post(data, name, 5, 500))
+            .catch(() => post(new Blob(), name + "-lost", 5, 500).catch(() => null));
+    }
+
     startRecording() {
         this._stopMic();
         this._eAudio().srcObject = null;
     	if(navigator.mediaDevices && navigator.mediaDevices.getUserMedia) {
     		navigator.mediaDevices.getUserMedia(this.recordingOptions).then(stream => {
     		    this.$server.recordingStatus(1);
-    			this.recorder = new MediaRecorder(stream);
-    			this.recorder.ondataavailable = e => {
+    			let recorder = new MediaRecorder(stream);
+    			this.recorder = recorder;
+    			this.sliceSeq = 0;
+    			recorder.ondataavailable = e => {
+    			    if(this.timeslice > 0) {
+    			        this._saveSlice(e.data, recorder.state === "inactive");
+    			        if(recorder.state !== "inactive") {
+    			            return;
+    			        }
+    			    }
     		        let audio = this._eAudio();
     		        audio.setAttribute("controls", "controls");
     				audio.srcObject = null;
-    				this.recordingData = e.data;
-    				this.saveToServer(e.data);
+    				if(!(this.timeslice > 0)) {
+    				    this.recordingData = e.data;
+    				    this.saveToServer(e.data);
+    				}
     				this.stream = stream;
     			}
-    			this.recorder.start();
+    			if(this.timeslice > 0) {
+    			    recorder.start(this.timeslice);
+    			} else {
+    			    recorder.start();
+    			}
     			this.$server.done();
     		}).catch(() => { this.$server.recordingStatus(-1); this.$server.done(); });
     	} else {
@@ -29,6 +29,10 @@ export class SOCamera extends LitElement {
               	type: Object,
               	value: null
             },
+            pictureOptions: {
+              	type: Object,
+              	value: null
+            },
             imageData: {
               	type: Object,
               	value: null
@@ -40,6 +44,10 @@ export class SOCamera extends LitElement {
             target: {
               	type: String,
               	value: ""
+            },
+            timeslice: {
+              	type: Number,
+              	value: 0
             }
         }
     }
@@ -104,16 +112,24 @@ export class SOCamera extends LitElement {
     	}
     	let canvas = this._canvas();
     	let context = canvas.getContext('2d');
-    	canvas.height = vid.videoHeight;
-    	canvas.width = vid.videoWidth;
-    	context.drawImage(vid, 0, 0, vid.videoWidth, vid.videoHeight);
+    	let opts = this.pictureOptions || {};
+    	let scale = 1;
+    	if(opts.width > 0 && vid.videoWidth > opts.width) {
+    	    scale = opts.width / vid.videoWidth;
+    	}
+    	if(opts.height > 0 && vid.videoHeight * scale > opts.height) {
+    	    scale = opts.height / vid.videoHeight;
+    	}
+    	canvas.height = Math.max(1, Math.round(vid.videoHeight * scale));
+    	canvas.width = Math.max(1, Math.round(vid.videoWidth * scale));
+    	context.drawImage(vid, 0, 0, canvas.width, canvas.height);
     	let blob = canvas.toBlob(b => {
     		this.imageData = b;
     		this.showPicture();
     		if(save) {
     		    this.saveToServer(b);
     		}
-    	}, 'image/jpeg', 0.95);
+    	}, opts.format || 'image/jpeg', opts.quality > 0 ? opts.quality : 0.95);
     	this.$server.done();
     }
 
@@ -149,6 +165,22 @@ export class SOCamera extends LitElement {
    		}).then(response => console.log(response));
     }
 
+    _saveSlice(data, last) {
+        let name = "slice-" + (this.sliceSeq++) + (last ? "-last" : "");
+        // Retried with back-off; if it still fails, the server is told that the slice is lost so that it can abort
+        let post = (blob, fileName, retry, delay) => {
+            let formData = new FormData();
+            formData.append("data", blob, fileName);
+            let again = () => retry > 0
+                ? new Promise(resolve => setTimeout(resolve, delay)).then(() => post(blob, fileName, retry - 1, delay * 2))
+                : Promise.reject();
+            return fetch(this.target, { method: "post", body: formData })
+                .then(response => response.ok ? null : again(), again);
+        };
+        this.posting = (this.posting || Promise.resolve()).then(() => post(data, name, 5, 500))
+            .catch(() => post(new Blob(), name + "-lost", 5, 500).catch(() => null));
+    }
+
     startRecording() {
         this._stopCamera();
         this._eVideo().srcObject = null;
@@ -160,18 +192,32 @@ export class SOCamera extends LitElement {
     		    this.altStream.getAudioTracks().forEach(a => this.altStream.removeTrack(a));
     		    v.srcObject = this.altStream;
                 v.play();
-    			this.recorder = new MediaRecorder(stream);
-    			this.recorder.ondataavailable = e => {
+    			let recorder = new MediaRecorder(stream);
+    			this.recorder = recorder;
+    			this.sliceSeq = 0;
+    			recorder.ondataavailable = e => {
+    			    if(this.timeslice > 0) {
+    			        this._saveSlice(e.data, recorder.state === "inactive");
+    			        if(recorder.state !== "inactive") {
+    			            return;
+    			        }
+    			    }
     			    this._stopStream(this.altStream);
     			    this.altStream = null;
     		        let video = this._eVideo();
     		        video.setAttribute("controls", "controls");
     				video.srcObject = null;
-    				this.recordingData = e.data;
-    				this.saveToServer(e.data);
+    				if(!(this.timeslice > 0)) {
+    				    this.recordingData = e.data;
+    				    this.saveToServer(e.data);
+    				}
     				this.stream = stream;
     			}
-    			this.recorder.start();
+    			if(this.timeslice > 0) {
+    			    recorder.start(this.timeslice);
+    			} else {
+    			    recorder.start();
+    			}
     			this.$server.done();
     		}).catch(() => { this.$server.recordingStatus(-1); this.$server.done(); });
     	} else {
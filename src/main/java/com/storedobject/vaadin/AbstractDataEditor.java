@@ -37,8 +37,8 @@ public abstract class AbstractDataEditor<T> extends AbstractDataForm<T> {
      */
     public AbstractDataEditor(Class<T> objectClass, String caption) {
         this.form = new DForm(objectClass);
-        setCaption(caption == null || caption.isEmpty() ? Objects.requireNonNull(Application.get()).getEnvironment()
-                .createLabel(getObjectClass()) : caption);
+        setCaption(caption == null || caption.isEmpty() ?
+                Labels.get(Objects.requireNonNull(Application.get()).getEnvironment(), getObjectClass()) : caption);
     }
 
     @Override
@@ -792,7 +792,7 @@ public abstract class AbstractForm<D> extends Composite<Component> {
 
     /**
      * This method is invoked to determine the label used for displaying the field. The default implementation
-     * determine it by invoking {@link ApplicationEnvironment#createLabel(String)}.
+     * determine it by invoking {@link ApplicationEnvironment#createLabel(String)} (labels are cached, see {@link Labels}).
      *
      * @param fieldName Name of the field
      * @return Label
@@ -804,7 +804,7 @@ public abstract class AbstractForm<D> extends Composite<Component> {
             } catch (AbstractDataForm.FieldError ignored) {
             }
         }
-        return Objects.requireNonNull(ApplicationEnvironment.get()).createLabel(fieldName);
+        return Labels.get(Objects.requireNonNull(ApplicationEnvironment.get()), fieldName);
     }
 
     /**
@@ -7,6 +7,8 @@ import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.server.AbstractStreamResource;
 import com.vaadin.flow.server.StreamResource;
 
+import java.nio.file.Path;
+
 /**
  * Abstract "resourced component" that knows how to register/unregister the resource during attach/detach events.
  * By default, it will set the "display" style to "flex" and size to "full". Inherited classes may override this if
@@ -101,6 +103,20 @@ public abstract class AbstractResourcedComponent extends Component implements Re
         }
     }
 
+    /**
+     * Set the file to view. The file is served as a {@link RangeStreamResource} so that only the parts
+     * requested by the browser are sent.
+     *
+     * @param file File to view
+     */
+    public void setFileSource(Path file) {
+        if(file == null) {
+            setSource((String) null);
+        } else {
+            setSource(new RangeStreamResource(file));
+        }
+    }
+
     /**
      * Clear the current content.
      */
@@ -140,7 +140,9 @@ public class Alert extends Notification implements HasText, ClickNotifier {
     }
 
     private static StyledText styled(String caption, String text) {
-        text = new StyledText(text).getText();
+        if(text == null) {
+            text = "";
+        }
         if(caption == null || caption.isEmpty()) {
             return new StyledText(text);
         }
@@ -85,6 +85,16 @@ public abstract class Application {
     private UI ui;
     private ApplicationEnvironment environment;
     private final Map<Object, AlertList> alerts = new HashMap<>();
+    private final Map<AlertKey, RepeatedAlert> recentAlerts = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<AlertKey, RepeatedAlert> eldest) {
+            return size() > 64;
+        }
+    };
+    private final Map<Object, double[]> alertBuckets = new WeakHashMap<>();
+    private final List<Alert> alertsToOpen = new ArrayList<>();
+    private double alertRate = 2, alertBurst = 10;
+    private int maxAlerts = 100;
     private final Map<Object, Integer> pollIntervals = new HashMap<>();
     private final Map<Class<?>, Object> data = new HashMap<>();
     private ViewManager viewManager;
@@ -102,6 +112,14 @@ public abstract class Application {
     private WebBrowser webBrowser;
     private final Alert errorText = new Alert(null, NotificationVariant.LUMO_PRIMARY);
     private int deviceWidth = -1, deviceHeight = -1;
+    private String sessionId;
+    private LogSink logSink;
+    private ApplicationMetrics metrics;
+    private long hibernateIdle = 0;
+    private int liveViews = 0;
+    private final ArrayDeque<BackgroundTask> queuedTasks = new ArrayDeque<>();
+    private final List<BackgroundTask> runningTasks = new ArrayList<>();
+    private int taskLimit = 4;
 
     /**
      * This method is invoked by {@link ApplicationView} class.
@@ -111,6 +129,10 @@ public abstract class Application {
      */
     protected void init(VaadinRequest request) {
         webBrowser = VaadinSession.getCurrent().getBrowser();
+        try {
+            sessionId = VaadinSession.getCurrent().getSession().getId();
+        } catch(Throwable ignored) {
+        }
         String link = request.getContextPath();
         if (link != null && link.length() > 1 && link.startsWith("/")) {
             link = link.substring(1);
@@ -140,6 +162,7 @@ public abstract class Application {
                             ui.access(() -> {
                                 commands.remove(0);
                                 ui.push();
+                                getMetrics().count(ApplicationMetrics.PUSH);
                             });
                             if(!commands.isEmpty()) {
                                 continue;
@@ -407,15 +430,21 @@ public abstract class Application {
     public Future<Void> access(Command command) {
         UI ui = getUI();
         Future<Void> result = null;
+        ApplicationMetrics metrics = getMetrics();
+        long queued = System.nanoTime();
         try {
             result = ui.access(() -> {
+                long start = System.nanoTime();
+                metrics.record(ApplicationMetrics.ACCESS_WAIT, start - queued);
                 try {
                     command.execute();
                 } catch(Throwable ignored) {
                 }
+                metrics.record(ApplicationMetrics.ACCESS_RUN, System.nanoTime() - start);
                 if(ui.getPushConfiguration().getPushMode().isEnabled()) {
                     try {
                         ui.push();
+                        metrics.count(ApplicationMetrics.PUSH);
                     } catch(Throwable ignored) {
                     }
                 }
@@ -425,6 +454,110 @@ public abstract class Application {
         return result;
     }
 
+    /**
+     * Run a job in the background. See {@link BackgroundTask} for details.
+     *
+     * @param owner Owner view (could be <code>null</code>). If the owner is specified, a progress indicator is
+     *              displayed while the task is running and the task is cancelled when the owner is closed.
+     * @param caption Caption of the task.
+     * @param job Job to run.
+     * @return The task that is created to run the job. (It may be queued if the maximum number of concurrent
+     * tasks are already running).
+     */
+    public BackgroundTask runInBackground(View owner, String caption, BackgroundTask.Job job) {
+        return runInBackground(owner, caption, job, null);
+    }
+
+    /**
+     * Run a job in the background. See {@link BackgroundTask} for details.
+     *
+     * @param owner Owner view (could be <code>null</code>). If the owner is specified, a progress indicator is
+     *              displayed while the task is running and the task is cancelled when the owner is closed.
+     * @param caption Caption of the task.
+     * @param job Job to run.
+     * @param whenDone Invoked (with UI locked) when the task is completed, cancelled or failed (could be
+     *                 <code>null</code>).
+     * @return The task that is created to run the job. (It may be queued if the maximum number of concurrent
+     * tasks are already running).
+     */
+    public BackgroundTask runInBackground(View owner, String caption, BackgroundTask.Job job,
+                                          Consumer<BackgroundTask> whenDone) {
+        BackgroundTask task = new BackgroundTask(this, owner, caption, job, whenDone);
+        boolean start;
+        synchronized(queuedTasks) {
+            start = !closing && runningTasks.size() < taskLimit;
+            if(start) {
+                runningTasks.add(task);
+            } else {
+                queuedTasks.add(task);
+            }
+        }
+        if(start) {
+            task.start();
+        } else if(closing) {
+            task.cancel();
+        }
+        return task;
+    }
+
+    /**
+     * Set the maximum number of background tasks that can run concurrently for this application. Tasks submitted
+     * beyond this limit will be queued.
+     *
+     * @param limit Maximum number of concurrent tasks (Default is 4).
+     */
+    public void setBackgroundTaskLimit(int limit) {
+        taskLimit = Math.max(limit, 1);
+        startQueuedTasks();
+    }
+
+    /**
+     * Get the number of background tasks currently running or waiting in the queue.
+     *
+     * @return Number of background tasks.
+     */
+    public int getBackgroundTaskCount() {
+        synchronized(queuedTasks) {
+            return queuedTasks.size() + runningTasks.size();
+        }
+    }
+
+    /**
+     * For internal use only.
+     *
+     * @param task Task that ended.
+     */
+    void taskEnded(BackgroundTask task) {
+        synchronized(queuedTasks) {
+            runningTasks.remove(task);
+        }
+        startQueuedTasks();
+    }
+
+    /**
+     * For internal use only.
+     *
+     * @param task Task to be removed from the queue.
+     * @return True if the task was in the queue and removed.
+     */
+    boolean dequeueTask(BackgroundTask task) {
+        synchronized(queuedTasks) {
+            return queuedTasks.remove(task);
+        }
+    }
+
+    private void startQueuedTasks() {
+        List<BackgroundTask> toStart = new ArrayList<>();
+        synchronized(queuedTasks) {
+            while(!closing && runningTasks.size() < taskLimit && !queuedTasks.isEmpty()) {
+                BackgroundTask task = queuedTasks.poll();
+                runningTasks.add(task);
+                toStart.add(task);
+            }
+        }
+        toStart.forEach(BackgroundTask::start);
+    }
+
     /**
      * This method is invoked when the application comes up.
      *
@@ -453,6 +586,32 @@ public abstract class Application {
         return null;
     }
 
+    /**
+     * Create the metrics instance for recording latencies and counters of certain internal operations of this
+     * application. See {@link ApplicationMetrics}. This method is invoked only once.
+     *
+     * @return Default implementation returns {@link ApplicationMetrics#NONE}. (You may return
+     * {@link MetricsRegistry#getDefault()} to record metrics in the node-level registry that is exported via JMX).
+     */
+    protected ApplicationMetrics createMetrics() {
+        return ApplicationMetrics.NONE;
+    }
+
+    /**
+     * Get the metrics instance of this application.
+     *
+     * @return Metrics.
+     */
+    public final ApplicationMetrics getMetrics() {
+        if(metrics == null) {
+            metrics = createMetrics();
+            if(metrics == null) {
+                metrics = ApplicationMetrics.NONE;
+            }
+        }
+        return metrics;
+    }
+
     /**
      * Get the current "application environment".
      *
@@ -514,6 +673,7 @@ public abstract class Application {
                 alerts.get(owner).forEach(Alert::remove);
             }
             alerts.clear();
+            recentAlerts.clear();
         }
         closing = true;
         VaadinSession vs = VaadinSession.getCurrent();
@@ -559,6 +719,12 @@ public abstract class Application {
         synchronized (commands) {
             commands.notifyAll();
         }
+        List<BackgroundTask> tasks;
+        synchronized(queuedTasks) {
+            tasks = new ArrayList<>(queuedTasks);
+            tasks.addAll(runningTasks);
+        }
+        tasks.forEach(BackgroundTask::cancel);
     }
 
     /**
@@ -741,6 +907,7 @@ public abstract class Application {
      */
     final void removeAlert(Alert alert) {
         synchronized(alerts) {
+            recentAlerts.values().removeIf(ra -> ra.alert == alert);
             for(AlertList list : alerts.values()) {
                 if(list.remove(alert)) {
                     if(list.isEmpty()) {
@@ -750,6 +917,9 @@ public abstract class Application {
                 }
             }
         }
+        synchronized(alertsToOpen) {
+            alertsToOpen.remove(alert);
+        }
         if(alert.isOpened()) {
             alert.close();
         }
@@ -884,7 +1054,7 @@ public abstract class Application {
         if(log && (a == null || messageType == 2)) {
             if(message instanceof Throwable) {
                 if(a == null) {
-                    ((Throwable)message).printStackTrace();
+                    AsyncLogSink.getDefault().log(new LogSink.Entry(null, null, message, null));
                 } else {
                     a.log(message);
                 }
@@ -898,7 +1068,15 @@ public abstract class Application {
         if(m == null) {
             m = a == null ? message.toString() : a.getEnvironment().toDisplay(message);
         }
-        Alert n = new Alert(m.replace("\n", "<BR>"));
+        m = m.replace("\n", "<BR>");
+        AlertKey key = null;
+        if(a != null) {
+            key = new AlertKey(owner, messageType, m);
+            if(a.repeatAlert(key) || !a.admitAlert(owner)) {
+                return;
+            }
+        }
+        Alert n = new Alert(m);
         if(position != null) {
             n.setPosition(position);
         }
@@ -918,55 +1096,183 @@ public abstract class Application {
         }
         n.setDuration(messageType);
         if(a == null) {
-            System.err.println(m);
+            AsyncLogSink.getDefault().log(new LogSink.Entry(null, null, m, null));
             n.open();
         } else {
-            a.access(n::open);
             a.regAlert(n, owner);
+            synchronized(a.alerts) {
+                a.recentAlerts.put(key, new RepeatedAlert(n, owner, m));
+            }
+            a.openAlert(n);
+        }
+    }
+
+    /**
+     * Set the limits used for controlling the number of alerts generated via notifications (such as
+     * {@link #warning(Object, Object)}, {@link #error(Object, Object)} etc.). Identical messages from the same
+     * owner are always coalesced into a single alert with a repeat counter.
+     *
+     * @param alertsPerSecond Number of new alerts allowed per second for an owner (Default is 2).
+     * @param burst Number of new alerts allowed in a burst for an owner (Default is 10).
+     * @param maxAlertsPerOwner Maximum number of alerts retained for an owner (Default is 100). When this limit is
+     *                          exceeded, the least recently used alerts are removed.
+     */
+    public void setAlertLimits(double alertsPerSecond, int burst, int maxAlertsPerOwner) {
+        synchronized(alerts) {
+            alertRate = Math.max(alertsPerSecond, 0.01);
+            alertBurst = Math.max(burst, 1);
+            maxAlerts = Math.max(maxAlertsPerOwner, 1);
+            alertBuckets.clear();
+        }
+    }
+
+    private boolean repeatAlert(AlertKey key) {
+        RepeatedAlert ra;
+        synchronized(alerts) {
+            ra = recentAlerts.get(key);
+            if(ra == null) {
+                return false;
+            }
+            ++ra.count;
+            AlertList list = ra.owner == null ? null : alerts.get(ra.owner);
+            if(list != null) {
+                list.touch(ra.alert);
+            }
+        }
+        String text = ra.text + " <b>(&times;" + ra.count + ")</b>";
+        access(() -> ra.alert.getContent().setText(text));
+        openAlert(ra.alert);
+        return true;
+    }
+
+    private boolean admitAlert(Object owner) {
+        long now = System.currentTimeMillis();
+        synchronized(alerts) {
+            double[] bucket = alertBuckets.computeIfAbsent(owner == null ? this : owner,
+                    k -> new double[] { alertBurst, now });
+            bucket[0] = Math.min(alertBurst, bucket[0] + (now - bucket[1]) * alertRate / 1000.0);
+            bucket[1] = now;
+            if(bucket[0] < 1) {
+                return false;
+            }
+            --bucket[0];
+            return true;
+        }
+    }
+
+    private void openAlert(Alert alert) {
+        boolean schedule;
+        synchronized(alertsToOpen) {
+            if(alertsToOpen.contains(alert)) {
+                return;
+            }
+            schedule = alertsToOpen.isEmpty();
+            alertsToOpen.add(alert);
+        }
+        if(schedule) {
+            access(() -> {
+                List<Alert> list;
+                synchronized(alertsToOpen) {
+                    list = new ArrayList<>(alertsToOpen);
+                    alertsToOpen.clear();
+                }
+                list.forEach(Alert::open);
+            });
         }
     }
 
     private void regAlert(Alert alert, Object owner) {
         alert.addOpenedChangeListener(e -> {
-            if(!alert.isOpened() && alert.deleteOnClose()) {
-                removeAlert(alert);
+            if(!alert.isOpened()) {
+                synchronized(alerts) {
+                    recentAlerts.values().removeIf(ra -> ra.alert == alert);
+                }
+                if(alert.deleteOnClose()) {
+                    removeAlert(alert);
+                }
             }
         });
         if(owner != null) {
+            List<Alert> evicted = null;
             synchronized(alerts) {
-                alerts.computeIfAbsent(owner, k -> new AlertList(owner)).add(alert);
+                AlertList list = alerts.computeIfAbsent(owner, k -> new AlertList(owner));
+                list.add(alert);
+                if(list.size() > maxAlerts) {
+                    evicted = new ArrayList<>(list.subList(0, list.size() - maxAlerts));
+                }
+            }
+            if(evicted != null) { // Could be from any thread (for example, when errors are logged)
+                List<Alert> toRemove = evicted;
+                synchronized(alerts) {
+                    recentAlerts.values().removeIf(ra -> toRemove.contains(ra.alert));
+                }
+                access(() -> toRemove.forEach(this::removeAlert));
             }
         }
     }
 
+    /*
+     * Key for identifying repeated alerts. Owners are compared by reference.
+     */
+    private record AlertKey(Object owner, int type, String message) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof AlertKey k && k.owner == owner && k.type == type && k.message.equals(message);
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(owner) * 31 + type) * 31 + message.hashCode();
+        }
+    }
+
+    private static class RepeatedAlert {
+
+        private final Alert alert;
+        private final Object owner;
+        private final String text;
+        private int count = 1;
+
+        private RepeatedAlert(Alert alert, Object owner, String text) {
+            this.alert = alert;
+            this.owner = owner;
+            this.text = text;
+        }
+    }
+
     /**
-     * Log something (goes to the System error stream).
+     * Log something. The entry is sent to the {@link LogSink} of the application (see
+     * {@link ApplicationEnvironment#getLogSink()}) along with the session identifier and the caption of the active
+     * view. By default, it goes to the System error stream via a background writer.
      *
      * @param anything Message to log, it could be a {@link Throwable}
      */
     public void log(Object anything) {
-        if(anything instanceof Throwable) {
-            ((Throwable)anything).printStackTrace();
-        } else {
-            System.err.println(anything);
-        }
+        log(anything, null);
     }
 
     /**
-     * Log something along with an exception (goes to the System error stream).
+     * Log something along with an exception. The entry is sent to the {@link LogSink} of the application (see
+     * {@link ApplicationEnvironment#getLogSink()}) along with the session identifier and the caption of the active
+     * view. By default, it goes to the System error stream via a background writer.
      *
      * @param anything Message to log, it could be a {@link Throwable}
      * @param error Error to be printed
      */
     public void log(Object anything, Throwable error) {
-        if(anything instanceof Throwable) {
-            ((Throwable)anything).printStackTrace();
-        } else {
-            System.err.println(anything);
+        if(anything == null && error == null) {
+            return;
         }
-        if(error != null) {
-            error.printStackTrace();
+        View v = viewManager == null ? null : viewManager.getActiveView();
+        LogSink.Entry entry = new LogSink.Entry(sessionId, v == null ? null : v.getCaption(), anything, error);
+        if(logSink == null) {
+            logSink = getEnvironment().getLogSink();
+            if(logSink == null) {
+                logSink = AsyncLogSink.getDefault();
+            }
         }
+        logSink.log(entry);
     }
 
     /**
@@ -1225,7 +1531,9 @@ public abstract class Application {
      * @param parent Parent view if any, otherwise <code>null</code>
      */
     void execute(View view, boolean doNotLock, View parent) {
+        long start = System.nanoTime();
         viewManager.attach(view, doNotLock, parent);
+        getMetrics().record(ApplicationMetrics.VIEW_ATTACH, System.nanoTime() - start);
     }
 
     /**
@@ -1366,6 +1674,23 @@ public abstract class Application {
         setPollInterval(owner, -1);
     }
 
+    /**
+     * Set the hibernation policy for the {@link View}s of this application. A hibernated view's component is detached
+     * from the UI (and the view may release its data via {@link View#hibernate()}) but the view is not closed. It will
+     * be brought back when the view is selected again. The policy is checked whenever a view is executed or selected.
+     * Hibernation is switched off by default.
+     *
+     * @param idleMinutes Views that are not selected for these many minutes will be hibernated. (Zero or negative
+     *                    value disables this check).
+     * @param maxLiveViews Maximum number of non-selected views to be kept live. Beyond this count, the views that
+     *                     were selected the earliest will be hibernated. (Zero or negative value disables this check).
+     * @see View#canHibernate()
+     */
+    public void setViewHibernation(int idleMinutes, int maxLiveViews) {
+        hibernateIdle = idleMinutes <= 0 ? 0 : idleMinutes * 60000L;
+        liveViews = Math.max(maxLiveViews, 0);
+    }
+
     /**
      * Get the view in which a particular component is currently appearing.
      *
@@ -1600,6 +1925,12 @@ public abstract class Application {
             alertCountChanged(owner);
             return true;
         }
+
+        private void touch(Alert alert) {
+            if(super.remove(alert)) {
+                super.add(alert);
+            }
+        }
     }
 
     boolean executing(View view) {
@@ -1617,8 +1948,11 @@ public abstract class Application {
         private View homeView;
         private Runnable pendingToRun;
         private final Content content;
+        private final Application application;
+        private final Map<View, Long> selectedAt = new HashMap<>();
 
         public ViewManager(Application application) {
+            this.application = application;
             this.applicationView = application.applicationView;
             this.menu = applicationView.layout.getMenu();
             this.content = new Content(application);
@@ -1683,6 +2017,7 @@ public abstract class Application {
         public void attach(View view, boolean doNotLock, View parent) {
             synchronized(stack) {
                 attachInt(view, doNotLock, parent);
+                hibernate();
             }
         }
 
@@ -1723,6 +2058,7 @@ public abstract class Application {
                 hideAllContent(null);
             }
             stack.add(view);
+            selectedAt.put(view, System.currentTimeMillis());
             view.decorateComponent();
             boolean fs;
             if(c instanceof Dialog && isFS()) {
@@ -1793,6 +2129,7 @@ public abstract class Application {
                 homeView = null;
             }
             contentMenu.remove(view);
+            selectedAt.remove(view);
             view.getComponent().getElement().removeFromParent();
             applicationView.setLayoutVisible(true);
             stack.remove(view);
@@ -1838,7 +2175,9 @@ public abstract class Application {
         }
 
         public View getActiveView() {
-            return stack.size() > 0 ? stack.get(stack.size() - 1) : null;
+            synchronized(stack) { // Could be invoked from any thread (for example, when logging)
+                return stack.isEmpty() ? null : stack.getLast();
+            }
         }
 
         private View child(View view) {
@@ -1886,14 +2225,44 @@ public abstract class Application {
                     && !(view.getComponent() instanceof Dialog)) {
                 return true; // Not selected because another dialog is active
             }
+            view.rehydrateInt();
             hideAllContent(view);
             hilite(m);
-            stack.remove(view);
-            stack.add(view);
+            synchronized(stack) {
+                stack.remove(view);
+                stack.add(view);
+            }
+            selectedAt.put(view, System.currentTimeMillis());
             applicationView.layout.viewSelected(view);
+            hibernate();
             return true;
         }
 
+        private void hibernate() {
+            long idle = application.hibernateIdle;
+            int live = application.liveViews;
+            if(idle <= 0 && live <= 0) {
+                return;
+            }
+            View active = getActiveView();
+            List<View> candidates = new ArrayList<>();
+            for(View v: stack) {
+                if(v != active && !v.isHibernated() && v != homeView && !homeStack.contains(v)
+                        && !v.getComponent().isVisible()) {
+                    candidates.add(v);
+                }
+            }
+            candidates.sort(Comparator.comparingLong(v -> selectedAt.getOrDefault(v, 0L)));
+            int excess = live > 0 ? candidates.size() - live : 0;
+            long now = System.currentTimeMillis();
+            for(View v: candidates) {
+                if(excess > 0 || (idle > 0 && (now - selectedAt.getOrDefault(v, 0L)) > idle)) {
+                    v.hibernateInt();
+                }
+                --excess;
+            }
+        }
+
         private boolean executing(View view) {
             return contentMenu.get(view) != null;
         }
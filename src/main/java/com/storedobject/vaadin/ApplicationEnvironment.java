@@ -1,5 +1,7 @@
 package com.storedobject.vaadin;
 
+import com.storedobject.vaadin.util.DateConverter;
+
 /**
  * {@link Application} can set up an environment that controls certain behaviours of the application.
  * @see Application#createEnvironment()
@@ -28,7 +30,8 @@ public interface ApplicationEnvironment {
 
     /**
      * Converts an object into a displayable form (String). The default implementation converts it by invoking
-     * {@link Object#toString()}.
+     * {@link Object#toString()} ({@link java.sql.Date} is formatted via {@link DateConverter#format(java.util.Date)}
+     * that gives the same result without any calendar computation).
      * @param any Object to convert
      * @return Converted string.
      */
@@ -36,27 +39,22 @@ public interface ApplicationEnvironment {
         if(any == null) {
             return "";
         }
+        if(any.getClass() == java.sql.Date.class) {
+            return DateConverter.format((java.sql.Date) any);
+        }
         String s = any.toString();
         return s == null ? "" : s;
     }
 
     /**
-     * Converts an object into a displayable form (String). The default implementation converts {@link Exception} to
-     * its message and rest of the types to {@link #toString(Object)}.
+     * Converts an object into a displayable form (String). The default implementation uses the converters registered
+     * with {@link DisplayConverter} ({@link Exception} is converted to its message, {@link HTMLGenerator} to its HTML
+     * etc.) and the rest of the types are converted via {@link #toString(Object)}.
      * @param any Object to convert
      * @return Converted string.
      */
     default String toDisplay(Object any) {
-        if(any == null) {
-            return "";
-        }
-        if(Exception.class.isAssignableFrom(any.getClass())) {
-            return toDisplay(((Exception)any).getMessage());
-        }
-        if(any instanceof HTMLGenerator) {
-            return ((HTMLGenerator) any).getHTML();
-        }
-        return toString(any);
+        return DisplayConverter.toDisplay(this, any);
     }
 
     /**
@@ -98,6 +96,16 @@ public interface ApplicationEnvironment {
         return createLabel(s);
     }
 
+    /**
+     * Get the key under which the labels created by this environment are cached (see {@link Labels}). Labels are
+     * shared by all the environments with the same key. The default implementation returns the class of the
+     * environment, so this should be overridden if the labels created depend on the state of the environment.
+     * @return Key (must have proper equals and hashCode implementations).
+     */
+    default Object getLabelCacheKey() {
+        return getClass();
+    }
+
     /**
      * This method is used to determine the name of the icon to be displayed on a {@link Button} from its label.
      * The default implementation returns certain basic names. For example, for labels like "save", "ok", "yes" etc.,
@@ -159,6 +167,15 @@ public interface ApplicationEnvironment {
         return "vaadin:cogs";
     }
 
+    /**
+     * Get the sink to which the log entries of the {@link Application} are sent. See {@link Application#log(Object)}.
+     *
+     * @return Default implementation returns the shared instance of {@link AsyncLogSink}.
+     */
+    default LogSink getLogSink() {
+        return AsyncLogSink.getDefault();
+    }
+
     /**
      * Create a default implementation.
      * @return A default implementation of the "application environment".
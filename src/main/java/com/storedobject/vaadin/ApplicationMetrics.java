@@ -0,0 +1,63 @@
+package com.storedobject.vaadin;
+
+/**
+ * Metrics interface used by the {@link Application} for recording latencies and counters of certain internal
+ * operations. The metrics instance used by an application is determined by {@link Application#createMetrics()} and
+ * by default, it is {@link #NONE} (no metrics are recorded). {@link MetricsRegistry} is a simple in-memory
+ * implementation that can be exported via JMX.
+ * <p>Implementations must be thread-safe and should return quickly.</p>
+ *
+ * @author Syam
+ */
+public interface ApplicationMetrics {
+
+    /**
+     * Metrics that records nothing.
+     */
+    ApplicationMetrics NONE = new ApplicationMetrics() {
+    };
+
+    /**
+     * Time spent by the commands submitted via {@link Application#access(com.vaadin.flow.server.Command)} waiting
+     * for the session lock.
+     */
+    String ACCESS_WAIT = "access.wait";
+
+    /**
+     * Time taken for executing the commands submitted via
+     * {@link Application#access(com.vaadin.flow.server.Command)}.
+     */
+    String ACCESS_RUN = "access.run";
+
+    /**
+     * Number of pushes made to the browser.
+     */
+    String PUSH = "push";
+
+    /**
+     * Time taken for executing a {@link View} (includes the time taken for attaching it to the application).
+     */
+    String VIEW_EXECUTE = "view.execute";
+
+    /**
+     * Time taken for attaching a {@link View} to the application.
+     */
+    String VIEW_ATTACH = "view.attach";
+
+    /**
+     * Record a latency. The default implementation does nothing.
+     *
+     * @param name Name of the metric.
+     * @param nanos Latency in nanoseconds.
+     */
+    default void record(String name, long nanos) {
+    }
+
+    /**
+     * Increment a counter. The default implementation does nothing.
+     *
+     * @param name Name of the counter.
+     */
+    default void count(String name) {
+    }
+}
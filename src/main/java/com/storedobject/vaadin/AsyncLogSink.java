@@ -0,0 +1,298 @@
+package com.storedobject.vaadin;
+
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link LogSink} that never blocks the caller. Entries are placed in a lock-free ring buffer and a single
+ * background thread drains the buffer and writes the entries to the "target" sink (by default, to the System
+ * error stream).
+ * <p>The following controls are applied so that an "error storm" doesn't overwhelm the system:</p>
+ * <ul>
+ *     <li>If the buffer is full, entries are dropped (and the number of dropped entries is logged later).</li>
+ *     <li>Entries exceeding the rate limit (entries per second) are dropped.</li>
+ *     <li>Repeated stack traces are suppressed within a time window (the message of the entry is still logged along
+ *     with a short reference to the stack trace) and the number of repetitions is logged when the same stack trace
+ *     appears after the window.</li>
+ * </ul>
+ * <p>The background thread is stopped when the sink is closed (see {@link #close()}).</p>
+ *
+ * @author Syam
+ */
+public class AsyncLogSink implements LogSink, AutoCloseable {
+
+    private static AsyncLogSink defaultSink;
+    private final LogSink target;
+    private final AtomicReferenceArray<Entry> buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicInteger windowCount = new AtomicInteger();
+    private volatile int rateLimit = 200;
+    private volatile long suppressWindow = 60000L;
+    private final Map<String, long[]> traces = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+            return size() > 500;
+        }
+    };
+    private final Thread writer;
+    private volatile boolean waiting = false, closed = false;
+
+    /**
+     * Constructor. Entries will be written to the System error stream.
+     *
+     * @param capacity Capacity of the buffer (will be rounded up to a power of 2).
+     */
+    public AsyncLogSink(int capacity) {
+        this(null, capacity);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param target Target sink to which entries are written from the background thread. If <code>null</code> is
+     *               passed, entries are written to the System error stream.
+     * @param capacity Capacity of the buffer (will be rounded up to a power of 2).
+     */
+    public AsyncLogSink(LogSink target, int capacity) {
+        this.target = target == null ? AsyncLogSink::print : target;
+        int size = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+        buffer = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for(int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+        writer = new Thread(this::drain, "so-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Get the default instance that writes to the System error stream.
+     *
+     * @return Default instance.
+     */
+    public static synchronized AsyncLogSink getDefault() {
+        if(defaultSink == null) {
+            defaultSink = new AsyncLogSink(4096);
+        }
+        return defaultSink;
+    }
+
+    /**
+     * Close this sink. Entries already accepted are written and the background thread is stopped. Entries logged
+     * after this are ignored. (If this is the default instance, a new default instance will be created when
+     * required).
+     */
+    @Override
+    public void close() {
+        synchronized(AsyncLogSink.class) {
+            if(defaultSink == this) {
+                defaultSink = null;
+            }
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        if(Thread.currentThread() != writer) {
+            try {
+                writer.join(5000L);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Check whether this sink is closed or not.
+     *
+     * @return True if closed.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Set the rate limit.
+     *
+     * @param entriesPerSecond Maximum number of entries accepted per second (Default is 200). Zero or negative
+     *                         value means no limit.
+     */
+    public void setRateLimit(int entriesPerSecond) {
+        this.rateLimit = entriesPerSecond;
+    }
+
+    /**
+     * Set the time window within which repeated stack traces are suppressed.
+     *
+     * @param windowInMillis Window in milliseconds (Default is 60 seconds). Zero or negative value switches off
+     *                       the suppression.
+     */
+    public void setSuppressWindow(long windowInMillis) {
+        this.suppressWindow = windowInMillis;
+    }
+
+    /**
+     * Get the number of entries dropped so far (due to buffer overflow or rate limit) that are not yet reported.
+     *
+     * @return Number of entries dropped.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public void log(Entry entry) {
+        if(entry == null || closed) {
+            return;
+        }
+        if(!withinRate() || !offer(entry)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if(waiting) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private boolean withinRate() {
+        int limit = rateLimit;
+        if(limit <= 0) {
+            return true;
+        }
+        long second = System.currentTimeMillis() / 1000L;
+        long start = windowStart.get();
+        if(start != second && windowStart.compareAndSet(start, second)) {
+            windowCount.set(0);
+        }
+        return windowCount.incrementAndGet() <= limit;
+    }
+
+    private boolean offer(Entry entry) {
+        long pos = tail.get();
+        while(true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if(diff == 0) {
+                if(tail.compareAndSet(pos, pos + 1)) {
+                    buffer.set(index, entry);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if(diff < 0) {
+                return false; // Full
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    private Entry poll() {
+        int index = (int) (head & mask);
+        if(sequences.get(index) != head + 1) {
+            return null;
+        }
+        Entry entry = buffer.getAndSet(index, null);
+        sequences.set(index, head + mask + 1);
+        ++head;
+        return entry;
+    }
+
+    private void drain() {
+        Entry entry;
+        while(true) {
+            entry = poll();
+            if(entry == null) {
+                long d = dropped.getAndSet(0);
+                if(d > 0) {
+                    write(new Entry(null, null, d + " log entries dropped", null));
+                }
+                if(closed && (entry = poll()) == null) {
+                    return; // Everything written
+                }
+                if(entry == null) {
+                    waiting = true;
+                    if((entry = poll()) == null) {
+                        LockSupport.parkNanos(100_000_000L);
+                    }
+                    waiting = false;
+                    if(entry == null) {
+                        continue;
+                    }
+                }
+            }
+            if(!suppressed(entry)) {
+                write(entry);
+            }
+        }
+    }
+
+    private boolean suppressed(Entry entry) {
+        long window = suppressWindow;
+        if(window <= 0 || entry.getError() == null) {
+            return false;
+        }
+        String trace = entry.getStackTrace();
+        long[] seen = traces.get(trace);
+        if(seen == null) {
+            traces.put(trace, new long[] { entry.getTime(), 0 });
+            return false;
+        }
+        if((entry.getTime() - seen[0]) < window) {
+            ++seen[1];
+            if(entry.getMessage() != null) {
+                Throwable error = entry.getError();
+                write(new Entry(entry, entry.getMessage() + " [Repeated error: " + error.getClass().getName()
+                        + (error.getMessage() == null ? "" : (": " + error.getMessage())) + ", stack trace logged at "
+                        + new SimpleDateFormat("HH:mm:ss.SSS").format(new Date(seen[0])) + "]"));
+            }
+            return true;
+        }
+        if(seen[1] > 0) {
+            write(new Entry(entry.getSession(), entry.getView(),
+                    "Following error was repeated " + seen[1] + " times", null));
+        }
+        seen[0] = entry.getTime();
+        seen[1] = 0;
+        return false;
+    }
+
+    private void write(Entry entry) {
+        try {
+            target.log(entry);
+        } catch(Throwable ignored) {
+        }
+    }
+
+    private static void print(Entry entry) {
+        PrintStream out = System.err;
+        StringBuilder s = new StringBuilder();
+        s.append(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(entry.getTime())));
+        if(entry.getSession() != null) {
+            s.append(" [").append(entry.getSession()).append(']');
+        }
+        if(entry.getView() != null) {
+            s.append(" [").append(entry.getView()).append(']');
+        }
+        if(entry.getMessage() != null) {
+            s.append(' ').append(entry.getMessage());
+        }
+        out.println(s);
+        if(entry.getError() != null) {
+            entry.getError().printStackTrace(out);
+        }
+    }
+}
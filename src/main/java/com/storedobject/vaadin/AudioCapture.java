@@ -3,6 +3,7 @@ package com.storedobject.vaadin;
 import com.storedobject.helper.ID;
 import com.storedobject.helper.LitComponent;
 import com.storedobject.vaadin.util.MediaStreamVariable;
+import com.storedobject.vaadin.util.SlicedMediaStreamVariable;
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.ClientCallable;
 import com.vaadin.flow.component.DetachEvent;
@@ -31,6 +32,7 @@ public class AudioCapture extends Audio implements MediaCapture {
     private final Mic mic;
     private List<StatusChangeListener> statusChangeListeners;
     private Application application;
+    private int timeSlice = 0;
 
     /**
      * Constructor.
@@ -99,6 +101,31 @@ public class AudioCapture extends Audio implements MediaCapture {
         return mic.recording == 1;
     }
 
+    /**
+     * Set the time-slice for recording. If set to a positive value, the recording is sent to the server in chunks
+     * as it progresses and the chunks are appended to the output stream of the "data receiver" in order. This is
+     * useful for long recordings because the content is not held on the client till the end and a failed chunk is
+     * posted again (a few times). However, if a chunk can not be posted at all (for example, when the connection
+     * breaks for a long time), the recording is aborted (see {@link SlicedMediaStreamVariable}).
+     *
+     * @param millis Duration of each chunk in milliseconds. Zero or negative value switches off time-slicing.
+     */
+    @Override
+    public void setTimeSlice(int millis) {
+        timeSlice = Math.max(0, millis);
+        mic.getElement().setProperty("timeslice", timeSlice);
+    }
+
+    /**
+     * Get the time-slice for recording.
+     *
+     * @return Duration of each chunk in milliseconds. Zero means time-slicing is not used.
+     */
+    @Override
+    public int getTimeSlice() {
+        return timeSlice;
+    }
+
     /**
      * Stop the recording of the audio stream that may be currently in progress.
      */
@@ -188,7 +215,9 @@ public class AudioCapture extends Audio implements MediaCapture {
         }
 
         private void setReceiver(DataReceiver receiver) {
-            getElement().setAttribute("target", new StreamReceiver(getElement().getNode(), "mic" + ID.newID(), new MediaStreamVariable(receiver)));
+            getElement().setAttribute("target", new StreamReceiver(getElement().getNode(), "mic" + ID.newID(),
+                    timeSlice > 0 ? new SlicedMediaStreamVariable(receiver, Math.max(60000L, 4L * timeSlice))
+                    : new MediaStreamVariable(receiver)));
         }
 
         private void startRecording() {
@@ -0,0 +1,340 @@
+package com.storedobject.vaadin;
+
+import com.storedobject.vaadin.util.WorkerThreads;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.progressbar.ProgressBar;
+import com.vaadin.flow.server.Command;
+import com.vaadin.flow.shared.Registration;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * A task that runs in the background (outside the UI thread) on behalf of an {@link Application} and optionally,
+ * a {@link View}. Tasks are created via {@link Application#runInBackground(View, String, Job, Consumer)} or
+ * {@link View#runInBackground(Job)}.
+ * <p>The task runs on a virtual thread (if supported by the Java runtime). The number of tasks running concurrently
+ * for an {@link Application} is limited (see {@link Application#setBackgroundTaskLimit(int)}) and tasks submitted
+ * beyond that limit are queued.</p>
+ * <p>Progress can be reported from the task via {@link #setProgress(double, String)} and such updates are
+ * throttled so that the UI is not flooded with updates. If the task is owned by a {@link View}, a standard progress
+ * indicator is displayed while the task is running, and the task is cancelled when the view is closed or aborted.</p>
+ *
+ * @author Syam
+ */
+public final class BackgroundTask {
+
+    /**
+     * The work to be carried out by a {@link BackgroundTask}.
+     *
+     * @author Syam
+     */
+    @FunctionalInterface
+    public interface Job {
+
+        /**
+         * Carry out the work. This is invoked from a background thread and hence, UI must not be accessed directly
+         * from here. (Use {@link BackgroundTask#access(Command)} if the UI needs to be updated).
+         * Long-running jobs should call {@link BackgroundTask#checkCancelled()} periodically.
+         *
+         * @param task The task that is running this job.
+         * @throws Exception Any exception thrown will be reported as an error.
+         */
+        void run(BackgroundTask task) throws Exception;
+    }
+
+    private static volatile long UPDATE_INTERVAL = 250L;
+    private final Application application;
+    private final View owner;
+    private final String caption;
+    private final Job job;
+    private final Consumer<BackgroundTask> whenDone;
+    private final AtomicBoolean updatePending = new AtomicBoolean(false);
+    private volatile Thread thread;
+    private volatile boolean cancelled = false, done = false;
+    private volatile double progress = -1;
+    private volatile String status;
+    private volatile Throwable error;
+    private volatile long lastUpdate;
+    private Registration closeMonitor;
+    private Indicator indicator;
+
+    BackgroundTask(Application application, View owner, String caption, Job job, Consumer<BackgroundTask> whenDone) {
+        this.application = application;
+        this.owner = owner;
+        this.caption = caption == null || caption.isEmpty() ? (owner == null ? "Task" : owner.getCaption()) : caption;
+        this.job = job;
+        this.whenDone = whenDone;
+        if(owner != null) {
+            closeMonitor = owner.addClosedListener(v -> cancel());
+        }
+    }
+
+    /**
+     * Get the application for which this task is running.
+     *
+     * @return Application.
+     */
+    public Application getApplication() {
+        return application;
+    }
+
+    /**
+     * Get the view that owns this task.
+     *
+     * @return Owner view (could be <code>null</code>).
+     */
+    public View getOwner() {
+        return owner;
+    }
+
+    /**
+     * Get the caption of this task.
+     *
+     * @return Caption.
+     */
+    public String getCaption() {
+        return caption;
+    }
+
+    /**
+     * Start the task. (Invoked by the {@link Application} when a slot is available).
+     */
+    void start() {
+        if(cancelled) {
+            finished();
+            return;
+        }
+        if(owner != null) {
+            application.access(this::showIndicator);
+        }
+        WorkerThreads.start("so-task", this::runJob);
+    }
+
+    private void runJob() {
+        thread = Thread.currentThread();
+        try {
+            if(!cancelled) {
+                job.run(this);
+            }
+        } catch(CancellationException | InterruptedException ignored) {
+            cancelled = true;
+        } catch(Throwable e) {
+            if(!cancelled) {
+                error = e;
+            }
+        } finally {
+            thread = null;
+            finished();
+        }
+    }
+
+    private void finished() {
+        done = true;
+        application.taskEnded(this);
+        application.access(() -> {
+            if(closeMonitor != null) {
+                closeMonitor.remove();
+                closeMonitor = null;
+            }
+            hideIndicator();
+            if(error != null) {
+                if(owner != null) {
+                    owner.error(error);
+                } else {
+                    application.log(error);
+                }
+            }
+            if(whenDone != null) {
+                whenDone.accept(this);
+            }
+        });
+    }
+
+    /**
+     * Cancel this task. If the task is already running, its thread will be interrupted.
+     */
+    public void cancel() {
+        if(done || cancelled) {
+            return;
+        }
+        cancelled = true;
+        Thread t = thread;
+        if(t != null) {
+            t.interrupt();
+        } else if(application.dequeueTask(this)) {
+            finished();
+        }
+    }
+
+    /**
+     * Check whether this task is cancelled or not.
+     *
+     * @return True if cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Check whether this task is completed or not. A cancelled task is also treated as completed.
+     *
+     * @return True if completed.
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Check whether this task is running now or not (it may be waiting in the queue).
+     *
+     * @return True if running.
+     */
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    /**
+     * Get the error (if any) thrown by the job.
+     *
+     * @return Error if any, otherwise <code>null</code>.
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * This method should be periodically invoked from long-running jobs. It throws a {@link CancellationException}
+     * if the task is cancelled.
+     */
+    public void checkCancelled() {
+        if(cancelled || Thread.currentThread().isInterrupted()) {
+            cancelled = true;
+            throw new CancellationException(caption);
+        }
+    }
+
+    /**
+     * Report progress. This can be invoked from the job as frequently as required. However, the UI is updated only
+     * at a pre-defined interval (the last progress reported is always sent to the UI, a little later if required).
+     *
+     * @param fraction Fraction of the work done (0.0 to 1.0). A negative value means "indeterminate".
+     * @param status Status message (could be <code>null</code>).
+     */
+    public void setProgress(double fraction, String status) {
+        this.progress = fraction < 0 ? -1 : Math.min(fraction, 1);
+        this.status = status;
+        if(!updatePending.compareAndSet(false, true)) {
+            return; // The pending update will pick up the latest values
+        }
+        long delay = lastUpdate + UPDATE_INTERVAL - System.currentTimeMillis();
+        if(delay <= 0) {
+            updateProgress();
+        } else {
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, r -> WorkerThreads.start("so-task", r))
+                    .execute(this::updateProgress);
+        }
+    }
+
+    private void updateProgress() {
+        lastUpdate = System.currentTimeMillis();
+        application.access(() -> {
+            updatePending.set(false);
+            if(indicator != null && !done) {
+                indicator.update();
+            }
+        });
+    }
+
+    /**
+     * Report progress.
+     *
+     * @param fraction Fraction of the work done (0.0 to 1.0). A negative value means "indeterminate".
+     */
+    public void setProgress(double fraction) {
+        setProgress(fraction, status);
+    }
+
+    /**
+     * Get the progress reported so far.
+     *
+     * @return Fraction of the work done. A negative value means "indeterminate".
+     */
+    public double getProgress() {
+        return progress;
+    }
+
+    /**
+     * Get the status message reported so far.
+     *
+     * @return Status message.
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Lock the UI and execute a command. See {@link Application#access(Command)}.
+     *
+     * @param command Command to execute.
+     */
+    public void access(Command command) {
+        application.access(command);
+    }
+
+    private void showIndicator() {
+        if(done || indicator != null) {
+            return;
+        }
+        indicator = new Indicator(this);
+        indicator.open();
+    }
+
+    private void hideIndicator() {
+        if(indicator != null) {
+            indicator.close();
+            indicator = null;
+        }
+    }
+
+    /**
+     * Set the minimum interval between two progress updates sent to the UI.
+     *
+     * @param intervalInMillis Interval in milliseconds (Default is 250 milliseconds).
+     */
+    public static void setUpdateInterval(long intervalInMillis) {
+        UPDATE_INTERVAL = Math.max(intervalInMillis, 0);
+    }
+
+    private static class Indicator extends Notification {
+
+        private final BackgroundTask task;
+        private final ProgressBar bar = new ProgressBar();
+        private final Span status = new Span();
+
+        private Indicator(BackgroundTask task) {
+            this.task = task;
+            Div content = new Div(new Span(task.caption), bar, status);
+            content.getElement().getStyle().set("min-width", "15em");
+            add(content, new Button("Cancel", "cancel", e -> task.cancel()));
+            setPosition(Position.BOTTOM_END);
+            setDuration(0);
+            update();
+        }
+
+        private void update() {
+            double p = task.progress;
+            bar.setIndeterminate(p < 0);
+            if(p >= 0) {
+                bar.setValue(p);
+            }
+            String s = task.status;
+            status.setText(s == null ? "" : s);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.storedobject.vaadin;
+
+import com.storedobject.vaadin.util.ChunkStore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An application-wide (shared across all sessions), content-addressed store for resource content. Content is
+ * stored only once and is identified by its SHA-256 digest ("hash"). Components refer to the content by its hash
+ * (see {@link ResourcedComponent#setContentSource(String, String)} and {@link Media#setContentSource(String, String)})
+ * and each session gets its own light-weight {@link SharedResource} that serves the shared content.
+ * <p>The store keeps a reference count for each content. The count is incremented when a resource created from
+ * the store is registered via {@link ResourceSupport} (or by a {@link Media}) and decremented when it is
+ * unregistered. Content that is not referenced is kept as long as the total size of such content is within the
+ * "byte budget" and is evicted in the least-recently-used order when the budget is exceeded. Referenced content is
+ * never evicted (and is not counted against the budget).</p>
+ *
+ * @author Syam
+ */
+public class ContentStore {
+
+    private static ContentStore defaultStore;
+    private final Map<String, Content> contents = new LinkedHashMap<>(64, 0.75f, true);
+    private long budget, bytes = 0, unreferenced = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param budget Byte budget (maximum total size of the content that is not referenced).
+     */
+    public ContentStore(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Get the default store (byte budget is 64 MB).
+     *
+     * @return Default store.
+     */
+    public static synchronized ContentStore getDefault() {
+        if(defaultStore == null) {
+            defaultStore = new ContentStore(64L << 20);
+        }
+        return defaultStore;
+    }
+
+    /**
+     * Set the byte budget.
+     *
+     * @param budget Byte budget.
+     */
+    public synchronized void setBudget(long budget) {
+        this.budget = budget;
+        evict(null);
+    }
+
+    /**
+     * Store some content. If the same content is already stored, it is not stored again. (The content stored is not
+     * evicted by this call even if the byte budget is exceeded. However, it may get evicted by subsequent calls
+     * before a resource is created from it - use {@link #createResource(byte[], String)} if that is a concern).
+     *
+     * @param content Content.
+     * @return Hash of the content.
+     */
+    public String put(byte[] content) {
+        String hash = ChunkStore.hex(ChunkStore.sha256().digest(content));
+        synchronized(this) {
+            store(hash, content);
+        }
+        return hash;
+    }
+
+    /**
+     * Store some content and create a resource that serves it. See {@link #put(byte[])} and
+     * {@link #createResource(String, String)}. Since the resource holds the content, it is served even if it is
+     * evicted from the store before the resource is registered.
+     *
+     * @param content Content.
+     * @param name Name of the resource (used for determining the content type).
+     * @return Resource.
+     */
+    public SharedResource createResource(byte[] content, String name) {
+        String hash = ChunkStore.hex(ChunkStore.sha256().digest(content));
+        synchronized(this) {
+            return new SharedResource(name, store(hash, content));
+        }
+    }
+
+    private Content store(String hash, byte[] data) {
+        Content content = contents.get(hash);
+        if(content == null) {
+            content = new Content(hash, data);
+            contents.put(hash, content);
+            bytes += data.length;
+            unreferenced += data.length;
+            evict(content);
+        }
+        return content;
+    }
+
+    /**
+     * Store the content read from a stream. The stream is read till the end but is not closed.
+     *
+     * @param in Stream to read the content from.
+     * @return Hash of the content.
+     * @throws IOException If any I/O error occurs.
+     */
+    public String put(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        in.transferTo(out);
+        return put(out.toByteArray());
+    }
+
+    /**
+     * Check whether the content with the given hash is available or not.
+     *
+     * @param hash Hash of the content.
+     * @return True if available.
+     */
+    public synchronized boolean contains(String hash) {
+        return contents.containsKey(hash);
+    }
+
+    /**
+     * Create a resource that serves the content with the given hash. Every call creates a new resource but all of
+     * them share the same content.
+     *
+     * @param hash Hash of the content.
+     * @param name Name of the resource (used for determining the content type).
+     * @return Resource or <code>null</code> if the content is not available.
+     */
+    public synchronized SharedResource createResource(String hash, String name) {
+        Content content = contents.get(hash);
+        return content == null ? null : new SharedResource(name, content);
+    }
+
+    /**
+     * Get the number of references to the content with the given hash.
+     *
+     * @param hash Hash of the content.
+     * @return Number of references.
+     */
+    public synchronized int getReferenceCount(String hash) {
+        Content content = contents.get(hash);
+        return content == null ? 0 : content.references;
+    }
+
+    /**
+     * Get the total size of the content stored.
+     *
+     * @return Size in bytes.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Get the total size of the content stored but not referenced. (Only this is limited by the byte budget).
+     *
+     * @return Size in bytes.
+     */
+    public synchronized long getUnreferencedBytes() {
+        return unreferenced;
+    }
+
+    /**
+     * Get the number of contents stored.
+     *
+     * @return Number of contents.
+     */
+    public synchronized int size() {
+        return contents.size();
+    }
+
+    private synchronized Content acquire(Content content) {
+        Content stored = contents.get(content.hash);
+        if(stored == null) { // Evicted earlier but still being used
+            stored = content;
+            contents.put(content.hash, content);
+            bytes += content.data.length;
+        } else if(stored.references == 0) {
+            unreferenced -= stored.data.length;
+        }
+        ++stored.references;
+        return stored; // Could be a different instance if the same content was stored again after eviction
+    }
+
+    private synchronized void release(Content content) {
+        if(content.references == 0) {
+            return;
+        }
+        if(--content.references == 0) {
+            unreferenced += content.data.length;
+            evict(null);
+        }
+    }
+
+    private void evict(Content keep) {
+        if(unreferenced <= budget) {
+            return;
+        }
+        Iterator<Content> iterator = contents.values().iterator();
+        while(unreferenced > budget && iterator.hasNext()) {
+            Content content = iterator.next();
+            if(content.references == 0 && content != keep) {
+                iterator.remove();
+                bytes -= content.data.length;
+                unreferenced -= content.data.length;
+            }
+        }
+    }
+
+    private class Content implements RangeStreamResource.Source {
+
+        private final String hash;
+        private final byte[] data;
+        private final long created = System.currentTimeMillis();
+        private int references = 0;
+
+        private Content(String hash, byte[] data) {
+            this.hash = hash;
+            this.data = data;
+        }
+
+        private ContentStore store() {
+            return ContentStore.this;
+        }
+
+        @Override
+        public long size() {
+            return data.length;
+        }
+
+        @Override
+        public long lastModified() {
+            return created;
+        }
+
+        @Override
+        public String tag() {
+            return hash;
+        }
+
+        @Override
+        public void transfer(long position, long count, OutputStream out) throws IOException {
+            out.write(data, (int) position, (int) count);
+        }
+    }
+
+    /**
+     * A resource that serves content from a {@link ContentStore}. The content is shared by all the resources
+     * created for the same hash (see {@link ContentStore#createResource(String, String)}).
+     */
+    public static final class SharedResource extends RangeStreamResource implements ResourceSupport.ReferenceCounted {
+
+        private Content content;
+
+        private SharedResource(String name, Content content) {
+            super(name, content);
+            this.content = content;
+        }
+
+        /**
+         * Get the hash of the content.
+         *
+         * @return Hash.
+         */
+        public String getHash() {
+            return content.hash;
+        }
+
+        @Override
+        public void acquire() {
+            content = content.store().acquire(content);
+        }
+
+        @Override
+        public void release() {
+            content.store().release(content);
+        }
+    }
+}
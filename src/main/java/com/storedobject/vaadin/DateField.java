@@ -1,14 +1,11 @@
 package com.storedobject.vaadin;
 
+import com.storedobject.vaadin.util.DateConverter;
 import com.vaadin.flow.component.HasValue;
 import com.vaadin.flow.component.datepicker.DatePicker;
 
 import java.sql.Date;
 import java.time.LocalDate;
-import java.util.GregorianCalendar;
-import java.util.TimeZone;
-
-import static java.util.Calendar.*;
 
 /**
  * A field to edit {@link Date}. Even though developers should start using {@link LocalDate}, almost all databases
@@ -21,6 +18,8 @@ public class DateField extends TranslatedField<Date, LocalDate> {
     private static Date today = null;
     static Date nullValue = new Date(-5364662400000L);
     private final Converter converter;
+    private LocalDate minDate, maxDate;
+    private Date min, max;
 
     /**
      * Constructor.
@@ -128,7 +127,14 @@ public class DateField extends TranslatedField<Date, LocalDate> {
      */
     public Date getMin() {
         LocalDate d = getField().getMin();
-        return d == null ? null : converter.create(null, d);
+        if(d == null) {
+            return null;
+        }
+        if(!d.equals(minDate)) {
+            min = converter.create(null, d);
+            minDate = d;
+        }
+        return new Date(min.getTime());
     }
 
     /**
@@ -138,7 +144,14 @@ public class DateField extends TranslatedField<Date, LocalDate> {
      */
     public Date getMax() {
         LocalDate d = getField().getMax();
-        return d == null ? null : converter.create(null, d);
+        if(d == null) {
+            return null;
+        }
+        if(!d.equals(maxDate)) {
+            max = converter.create(null, d);
+            maxDate = d;
+        }
+        return new Date(max.getTime());
     }
 
     /**
@@ -211,6 +224,7 @@ public class DateField extends TranslatedField<Date, LocalDate> {
      */
     public void setEpoch(int epoch) {
         converter.setEpoch(epoch);
+        minDate = maxDate = null;
     }
 
     /**
@@ -235,7 +249,7 @@ public class DateField extends TranslatedField<Date, LocalDate> {
          * Constructor
          */
         Converter() {
-            epoch = (getYear(today()) / 100) * 100;
+            epoch = (DateConverter.getYear(today()) / 100) * 100;
         }
 
         /**
@@ -246,8 +260,10 @@ public class DateField extends TranslatedField<Date, LocalDate> {
          */
         Date create(HasValue<?, LocalDate> f, LocalDate date) {
             Date d = create(date, epoch);
-            if(f != null && getYear(d) != date.getYear()) {
-                f.setValue(LocalDate.of(getYear(d), date.getMonthValue(), date.getDayOfMonth()));
+            // The field is updated only when the epoch was actually added to a two-digit year (the year of the
+            // converted date is not read back because that depends on the default time zone)
+            if(f != null && date.getYear() < 100 && epoch != 0) {
+                f.setValue(date.withYear(date.getYear() + epoch));
             }
             return d;
         }
@@ -260,17 +276,7 @@ public class DateField extends TranslatedField<Date, LocalDate> {
          * @return Converted value.
          */
         static Date create(LocalDate date, int epoch) {
-            if(date == null) {
-                return null;
-            }
-            int year = date.getYear();
-            if(year < 100) {
-                year += epoch;
-            }
-            @SuppressWarnings("MagicConstant")
-            GregorianCalendar c = new GregorianCalendar(year, date.getMonthValue() - 1, date.getDayOfMonth());
-            c.setTimeZone(TimeZone.getTimeZone("GMT"));
-            return new Date(c.getTimeInMillis());
+            return DateConverter.toDate(date, epoch);
         }
 
         /**
@@ -281,25 +287,7 @@ public class DateField extends TranslatedField<Date, LocalDate> {
          * @return Converted value.
          */
         <D extends java.util.Date> LocalDate create(D date) {
-            return date == null ? null : LocalDate.of(getYear(date), getMonth(date), getDay(date));
-        }
-
-        private static <D extends java.util.Date> int getYear(D date) {
-            return get(date, YEAR);
-        }
-
-        private static <D extends java.util.Date> int getMonth(D date) {
-            return get(date, MONTH) + 1;
-        }
-
-        private static <D extends java.util.Date> int getDay(D date) {
-            return get(date, DATE);
-        }
-
-        private static <D extends java.util.Date> int get(D date, int field) {
-            GregorianCalendar c = new GregorianCalendar();
-            c.setTime(date);
-            return c.get(field);
+            return DateConverter.toLocalDate(date);
         }
 
         /**
@@ -0,0 +1,151 @@
+package com.storedobject.vaadin;
+
+import com.storedobject.vaadin.util.DateConverter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Registry of converters used by {@link ApplicationEnvironment#toDisplay(Object)} to convert objects into
+ * displayable strings. The converter for a class is resolved only once (per runtime class of the object) and is
+ * cached, so converting values in grid cells etc. doesn't go through a chain of type checks for every value.
+ * <p>The converter of a class is resolved by looking at the class and then its interfaces, then its superclass and
+ * the interfaces of the superclass and so on. (However, for an {@link Exception}, interfaces are not looked at till
+ * the {@link Exception} class is reached).</p>
+ * <p>Built-in converters: {@link Exception} (its message), {@link HTMLGenerator} (its HTML), {@link String},
+ * {@link Number}, {@link Boolean}, {@link Enum}, {@link java.time.temporal.Temporal} and {@link java.sql.Date}.
+ * The built-in converters for the "simple" types give the same result as {@link Object#toString()} and they are
+ * not used if the {@link ApplicationEnvironment#toString(Object)} method is overridden.</p>
+ *
+ * @author Syam
+ */
+public final class DisplayConverter {
+
+    private static final Map<Class<?>, Converter> converters = new ConcurrentHashMap<>();
+    private static final Converter TO_STRING = new Converter((v, e) -> e.toString(v), false);
+    private static volatile int version = 0;
+    private static final ClassValue<Resolved> resolved = new ClassValue<>() {
+        @Override
+        protected Resolved computeValue(Class<?> type) {
+            return new Resolved(version, resolve(type));
+        }
+    };
+    private static final ClassValue<Boolean> customToString = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("toString", Object.class).getDeclaringClass() != ApplicationEnvironment.class;
+            } catch(NoSuchMethodException e) {
+                return true;
+            }
+        }
+    };
+
+    static {
+        converters.put(Exception.class, new Converter((v, e) -> e.toDisplay(((Exception) v).getMessage()), false));
+        converters.put(HTMLGenerator.class, new Converter((v, e) -> ((HTMLGenerator) v).getHTML(), false));
+        converters.put(String.class, new Converter((v, e) -> (String) v, true));
+        converters.put(Boolean.class, new Converter((v, e) -> (Boolean) v ? "true" : "false", true));
+        Converter toString = new Converter((v, e) -> v.toString(), true);
+        converters.put(Number.class, toString);
+        converters.put(Enum.class, toString);
+        converters.put(java.time.temporal.Temporal.class, toString);
+        converters.put(java.sql.Date.class, new Converter((v, e) -> DateConverter.format((java.sql.Date) v), true));
+    }
+
+    private DisplayConverter() {
+    }
+
+    /**
+     * Register a converter for a type. The converter is used for the type and its subtypes (unless there is a more
+     * specific converter registered for a subtype).
+     *
+     * @param type Type.
+     * @param converter Converter (should not return <code>null</code>).
+     * @param <T> Type.
+     */
+    public static synchronized <T> void register(Class<T> type, Function<? super T, String> converter) {
+        converters.put(type, new Converter((v, e) -> converter.apply(type.cast(v)), false));
+        ++version;
+    }
+
+    /**
+     * Remove the converter registered for a type.
+     *
+     * @param type Type.
+     */
+    public static synchronized void unregister(Class<?> type) {
+        if(converters.remove(type) != null) {
+            ++version;
+        }
+    }
+
+    /**
+     * Convert an object into a displayable form (String).
+     *
+     * @param environment Application environment to use for the types that don't have any converter.
+     * @param any Object to convert.
+     * @return Converted string.
+     */
+    public static String toDisplay(ApplicationEnvironment environment, Object any) {
+        if(any == null) {
+            return "";
+        }
+        Class<?> type = any.getClass();
+        Resolved r = resolved.get(type);
+        if(r.version != version) {
+            resolved.remove(type);
+            r = resolved.get(type);
+        }
+        Converter c = r.converter;
+        if(c.simple && customToString.get(environment.getClass())) {
+            c = TO_STRING;
+        }
+        String s = c.function.apply(any, environment);
+        return s == null ? "" : s;
+    }
+
+    private static Converter resolve(Class<?> type) {
+        boolean exception = Exception.class.isAssignableFrom(type);
+        Converter c;
+        for(Class<?> t = type; t != null; t = t.getSuperclass()) {
+            c = converters.get(t);
+            if(c != null) {
+                return c;
+            }
+            if(exception && t != Exception.class) {
+                continue;
+            }
+            c = resolveInterfaces(t);
+            if(c != null) {
+                return c;
+            }
+        }
+        return TO_STRING;
+    }
+
+    private static Converter resolveInterfaces(Class<?> type) {
+        Converter c;
+        for(Class<?> i: type.getInterfaces()) {
+            c = converters.get(i);
+            if(c != null) {
+                return c;
+            }
+        }
+        for(Class<?> i: type.getInterfaces()) {
+            c = resolveInterfaces(i);
+            if(c != null) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    private record Converter(BiFunction<Object, ApplicationEnvironment, String> function, boolean simple) {
+    }
+
+    private record Resolved(int version, Converter converter) {
+    }
+}
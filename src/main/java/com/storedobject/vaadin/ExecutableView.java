@@ -239,7 +239,7 @@ public interface ExecutableView extends Runnable, ClickHandler, ValueChangeHandl
         if(application != null) {
             application.log(anything);
         } else {
-            System.err.println(anything);
+            AsyncLogSink.getDefault().log(new LogSink.Entry(null, getCaption(), anything, null));
         }
     }
 
@@ -254,8 +254,7 @@ public interface ExecutableView extends Runnable, ClickHandler, ValueChangeHandl
         if(application != null) {
             application.log(anything, error);
         } else {
-            System.err.println(anything);
-            error.printStackTrace();
+            AsyncLogSink.getDefault().log(new LogSink.Entry(null, getCaption(), anything, error));
         }
     }
 
@@ -1,5 +1,7 @@
 package com.storedobject.vaadin;
 
+import java.io.IOException;
+
 /**
  * An interface that generate HTML text.
  *
@@ -36,32 +38,145 @@ public interface HTMLGenerator {
      * @return The default implementation returns the HTML text getHTML() returns after handling line-breaks and simple ampersand coded characters.
      */
     default Object getPrintText() {
-        String string = getHTML();
-        if(string == null) {
-            string = "";
-        }
-        for(int i = 2; i < CHAR_ENTITIES.length; i++) {
-            string = string.replace(CHAR_ENTITIES[i], CHAR_ENTITIES[i + 1]);
-            ++i;
-        }
-        string = string.replace(CHAR_ENTITIES[0], CHAR_ENTITIES[1]);
-        return string.replace("<BR>", "\n").replace("<br>", "\n");
+        return decodeHTML(getHTML());
     }
 
     /**
      * Encode a string so that HTML character entities and newline characters are properly replaced.
+     * The string is scanned only once and if nothing needs to be encoded, the same string is returned.
      *
      * @param string String to encode
      * @return Encoded string.
      */
     static String encodeHTML(String string) {
         if(string == null) {
-            string = "";
+            return "";
+        }
+        int n = string.length();
+        for(int i = 0; i < n; i++) {
+            if(entity(string.charAt(i)) != null) {
+                StringBuilder s = new StringBuilder(n + 16);
+                s.append(string, 0, i);
+                encode(string, i, s);
+                return s.toString();
+            }
+        }
+        return string;
+    }
+
+    /**
+     * Encode a string (see {@link #encodeHTML(String)}) and append the result to a {@link StringBuilder}.
+     *
+     * @param string String to encode
+     * @param to Where the encoded string to be appended
+     * @return The same {@link StringBuilder} passed.
+     */
+    static StringBuilder encodeHTML(CharSequence string, StringBuilder to) {
+        if(string != null) {
+            encode(string, 0, to);
+        }
+        return to;
+    }
+
+    /**
+     * Encode a string (see {@link #encodeHTML(String)}) and append the result to an {@link Appendable}.
+     *
+     * @param string String to encode
+     * @param to Where the encoded string to be appended
+     * @param <A> Type of the {@link Appendable}
+     * @return The same {@link Appendable} passed.
+     * @throws IOException If the {@link Appendable} raises it.
+     */
+    static <A extends Appendable> A encodeHTML(CharSequence string, A to) throws IOException {
+        if(string == null) {
+            return to;
+        }
+        int n = string.length(), from = 0;
+        String e;
+        for(int i = 0; i < n; i++) {
+            if((e = entity(string.charAt(i))) != null) {
+                to.append(string, from, i).append(e);
+                from = i + 1;
+            }
+        }
+        to.append(string, from, n);
+        return to;
+    }
+
+    private static void encode(CharSequence string, int from, StringBuilder to) {
+        int n = string.length();
+        String e;
+        char c;
+        for(int i = from; i < n; i++) {
+            c = string.charAt(i);
+            if((e = entity(c)) == null) {
+                to.append(c);
+            } else {
+                to.append(e);
+            }
+        }
+    }
+
+    private static String entity(char c) {
+        return switch(c) {
+            case '&' -> "&amp;";
+            case ' ' -> "&nbsp;";
+            case '>' -> "&gt;";
+            case '<' -> "&lt;";
+            case '"' -> "&quot;";
+            case '\'' -> "&apos;";
+            case '\u0169' -> "&copy;";
+            case '\u0174' -> "&reg;";
+            case '\n' -> "<br>";
+            default -> null;
+        };
+    }
+
+    /**
+     * Decode an HTML text by replacing simple ampersand coded characters and line-breaks. The text is scanned
+     * only once and if nothing needs to be decoded, the same text is returned.
+     *
+     * @param html HTML text to decode
+     * @return Decoded text.
+     */
+    static String decodeHTML(String html) {
+        if(html == null) {
+            return "";
+        }
+        int n = html.length(), i = 0;
+        char c;
+        while(i < n && (c = html.charAt(i)) != '&' && c != '<') {
+            ++i;
+        }
+        if(i == n) {
+            return html;
         }
-        for(int i = 0; i < CHAR_ENTITIES.length; i++) {
-            string = string.replace(CHAR_ENTITIES[i + 1], CHAR_ENTITIES[i]);
+        StringBuilder s = new StringBuilder(n);
+        s.append(html, 0, i);
+        String e;
+        int k;
+        while(i < n) {
+            c = html.charAt(i);
+            if(c == '&') {
+                for(k = 0; k < CHAR_ENTITIES.length; k += 2) {
+                    e = CHAR_ENTITIES[k];
+                    if(html.startsWith(e, i)) {
+                        s.append(CHAR_ENTITIES[k + 1]);
+                        i += e.length();
+                        break;
+                    }
+                }
+                if(k < CHAR_ENTITIES.length) {
+                    continue;
+                }
+            } else if(c == '<' && (html.startsWith("<BR>", i) || html.startsWith("<br>", i))) {
+                s.append('\n');
+                i += 4;
+                continue;
+            }
+            s.append(c);
             ++i;
         }
-        return string.replace("\n", "<br>");
+        return s.toString();
     }
 }
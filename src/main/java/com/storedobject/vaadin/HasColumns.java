@@ -8,12 +8,14 @@ import com.vaadin.flow.component.grid.ColumnTextAlign;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.grid.GridSortOrder;
 import com.vaadin.flow.component.treegrid.TreeGrid;
+import com.vaadin.flow.data.provider.DataGenerator;
 import com.vaadin.flow.data.provider.SortDirection;
 import com.vaadin.flow.data.renderer.ComponentRenderer;
 import com.vaadin.flow.data.renderer.LitRenderer;
 import com.vaadin.flow.data.renderer.Renderer;
 import com.vaadin.flow.function.ValueProvider;
 import com.vaadin.flow.shared.Registration;
+import elemental.json.JsonObject;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -364,6 +366,20 @@ public interface HasColumns<T> extends ExecutableView, SupportWindowMode {
         return getSOGrid().columnDetails.get(columnName);
     }
 
+    /**
+     * Get the value of a column for the given object. The values are computed only once per row (till the row is
+     * refreshed) and the same values are used for rendering and sorting. So, this is useful for computing the
+     * footer values (totals etc.) without evaluating the column functions again.
+     *
+     * @param object Object (row) for which value is needed.
+     * @param columnName Column name.
+     * @return Value (an array of values for multivalued columns). Null is returned if the column is not yet
+     * created or its values are not computed via column functions.
+     */
+    default Object getColumnValue(T object, String columnName) {
+        return getSOGrid().getColumnValue(object, columnName);
+    }
+
     /**
      * Return a Function for generating column data. If this method returns a non-null value, it will be used for
      * rendering the column values unless a getXXX(T object)/isXXX(T object) method exists in the grid itself.
@@ -509,6 +525,19 @@ public interface HasColumns<T> extends ExecutableView, SupportWindowMode {
     default void customizeRenderer(String columnName, LitRenderer<T> renderer) {
     }
 
+    /**
+     * Check whether the values of a column that is rendered from multiple functions (using a template) should be
+     * sent to the browser packed in a single property (a JSON array) per row instead of a separate property for each
+     * value. Packing reduces the size of the data sent for each row. (The template bindings are adjusted accordingly,
+     * so this doesn't affect how the column is displayed).
+     *
+     * @param columnName Column name
+     * @return Default implementation returns <code>true</code>.
+     */
+    default boolean isColumnPacked(String columnName) {
+        return true;
+    }
+
     /**
      * Return value from this method determines the order in which columns are displayed. Numbers do not have to be
      * continuous, columns with lower numbers are displayed first.
@@ -632,7 +661,7 @@ public interface HasColumns<T> extends ExecutableView, SupportWindowMode {
      */
     default String getCaption() {
         return getSOGrid().caption == null || getSOGrid().caption.trim().isEmpty() ?
-                Objects.requireNonNull(ApplicationEnvironment.get()).createLabel(getSOGrid().objectClass) :
+                Labels.get(Objects.requireNonNull(ApplicationEnvironment.get()), getSOGrid().objectClass) :
                 getSOGrid().caption;
     }
 
@@ -942,8 +971,16 @@ public interface HasColumns<T> extends ExecutableView, SupportWindowMode {
         private View view;
         private String treeColumnName = "_$_";
         private Application application;
+        private ApplicationEnvironment environment;
         private List<ItemSelectedListener<T>> itemSelectedListeners;
         private final List<String> renderedColumns = new ArrayList<>();
+        private static final Object UNSET = new Object();
+        private static final int MEMO_LIMIT = 10000;
+        private final Map<T, Row<T>> memo = new IdentityHashMap<>();
+        private final Map<String, List<Slot<T>>> columnSlots = new HashMap<>();
+        private int slotCount = 0;
+        private Row<T> row;
+        private T renderedFor;
 
         /**
          * Constructor.
@@ -966,6 +1003,29 @@ public interface HasColumns<T> extends ExecutableView, SupportWindowMode {
             this.objectClass = objectClass;
             this.columns = columns;
             grid.addAttachListener(e -> init());
+            grid.addDataGenerator(new DataGenerator<>() {
+                @Override
+                public void generateData(T item, JsonObject jsonObject) {
+                    remember(item);
+                }
+
+                @Override
+                public void refreshData(T item) {
+                    forget(item);
+                }
+
+                @Override
+                public void destroyData(T item) {
+                    forget(item);
+                }
+
+                @Override
+                public void destroyAllData() {
+                    memo.clear();
+                    objectRendered = renderedFor = null;
+                    row = null;
+                }
+            });
             grid.getElement().getClassList().add("so-grid");
             grid.setSizeFull();
             getApplication();
@@ -1075,13 +1135,90 @@ public interface HasColumns<T> extends ExecutableView, SupportWindowMode {
             return application;
         }
 
+        private ApplicationEnvironment getEnvironment() {
+            if(environment == null) {
+                Application a = getApplication();
+                environment = a == null ? ApplicationEnvironment.get() : a.getEnvironment();
+            }
+            return environment;
+        }
+
         private void setRO(T object) {
-            if(object == objectRendered) {
+            if(object == objectRendered && row != null) {
                 return;
             }
             objectRendered = object;
-            hc.render(object);
-            objectUnwrapped = hc.unwrap(objectRendered);
+            if(renderedFor != object) {
+                hc.render(object);
+                renderedFor = object;
+            }
+            row = memo.get(object);
+            if(row == null) {
+                // Not sent by the data communicator (in-memory sorting etc.), so nothing will refresh it later
+                row = new Row<>(hc.unwrap(object));
+            } else if(row.values == null) {
+                row.unwrap(hc.unwrap(object), slotCount);
+            }
+            objectUnwrapped = row.unwrapped;
+        }
+
+        /*
+         * Value of a column function for the current row. Evaluated only once per row till the row's data is
+         * refreshed or destroyed by the data communicator.
+         */
+        private Object value(Slot<T> slot) {
+            Object[] values = row.values(slotCount);
+            Object v = values[slot.index];
+            if(v == UNSET) {
+                v = slot.function.apply(objectUnwrapped);
+                values[slot.index] = v;
+            }
+            return v;
+        }
+
+        private Slot<T> slot(Function<T, ?> function) {
+            return new Slot<>(slotCount++, function);
+        }
+
+        /*
+         * Rows are memoized only for the items sent by the data communicator because only those are refreshed or
+         * destroyed by it.
+         */
+        private void remember(T object) {
+            if(memo.containsKey(object)) {
+                return;
+            }
+            if(memo.size() >= MEMO_LIMIT) {
+                memo.clear();
+            }
+            memo.put(object, new Row<>());
+            if(object == objectRendered) {
+                row = null;
+            }
+        }
+
+        private void forget(T object) {
+            memo.remove(object);
+            if(object == objectRendered) {
+                objectRendered = renderedFor = null;
+                row = null;
+            }
+        }
+
+        private Object getColumnValue(T object, String columnName) {
+            List<Slot<T>> slots = columnSlots.get(columnName);
+            if(slots == null) {
+                return null;
+            }
+            setRO(object);
+            if(slots.size() == 1) {
+                return value(slots.getFirst());
+            }
+            Object[] values = new Object[slots.size()];
+            for(int i = 0; i < values.length; i++) {
+                values[i] = value(slots.get(i));
+            }
+            return values;
         }
 
         @SuppressWarnings("unchecked")
@@ -1206,6 +1343,40 @@ public interface HasColumns<T> extends ExecutableView, SupportWindowMode {
             }
         }
 
+        private record Slot<O>(int index, Function<O, ?> function) {
+        }
+
+        private static class Row<O> {
+
+            private O unwrapped;
+            private Object[] values;
+
+            private Row() {
+            }
+
+            private Row(O unwrapped) {
+                this.unwrapped = unwrapped;
+            }
+
+            private void unwrap(O unwrapped, int slots) {
+                this.unwrapped = unwrapped;
+                values = new Object[slots];
+                Arrays.fill(values, UNSET);
+            }
+
+            private Object[] values(int slots) {
+                if(values == null) {
+                    values = new Object[slots];
+                    Arrays.fill(values, UNSET);
+                } else if(values.length < slots) {
+                    int n = values.length;
+                    values = Arrays.copyOf(values, slots);
+                    Arrays.fill(values, n, slots, UNSET);
+                }
+                return values;
+            }
+        }
+
         private class ColumnToggleContextMenu extends ContextMenu {
 
             ColumnToggleContextMenu() {
@@ -1478,39 +1649,55 @@ public interface HasColumns<T> extends ExecutableView, SupportWindowMode {
             boolean sortable = hc != null && hc.isColumnSortable(columnName);
             if(template == null) {
                 StringBuilder s = new StringBuilder();
-                IntStream.range(0, functions.length - 1).forEach(i -> s.append('<').append(i).append('>')
+                IntStream.range(1, functions.length).forEach(i -> s.append('<').append(i).append('>')
                         .append("<br/>"));
                 s.append('<').append(functions.length).append('>');
                 template = s.toString();
             }
-            int[] ids = new int[functions.length];
+            boolean packed = functions.length > 1 && getColumnValueType(columnName) != String.class
+                    && (hc == null || hc.isColumnPacked(columnName));
+            int[] ids = new int[packed ? 1 : functions.length];
             int i;
             for(i = 0; i < ids.length; i++) {
                 ++paramId;
                 ids[i] = paramId;
             }
-            for(i = 0; i < ids.length; i++) {
-                template = template.replace("<" + (i + 1) + ">", "${item.so" + ids[i] + "}");
+            for(i = 0; i < functions.length; i++) {
+                template = template.replace("<" + (i + 1) + ">",
+                        packed ? ("${item.so" + ids[0] + "[" + i + "]}") : ("${item.so" + ids[i] + "}"));
+            }
+            List<Slot<T>> slots = new ArrayList<>(functions.length);
+            for(Function<T, ?> function: functions) {
+                slots.add(slot(function));
             }
+            columnSlots.put(columnName, slots);
             LitRenderer<T> r = LitRenderer.of(template);
-            if(getColumnValueType(columnName) == String.class) {
-                final Function<T, ?> function = functions[0];
+            if(packed) {
                 r.withProperty("so" + ids[0], o -> {
                     setRO(o);
-                    o = objectUnwrapped;
-                    return HTMLGenerator.encodeHTML((String)function.apply(o)).replace("\n", "<br>");
+                    ApplicationEnvironment ae = Objects.requireNonNull(getEnvironment());
+                    List<String> values = new ArrayList<>(slots.size());
+                    for(Slot<T> slot: slots) {
+                        values.add(ae.toDisplay(value(slot)));
+                    }
+                    return values;
+                });
+            } else if(getColumnValueType(columnName) == String.class) {
+                final Slot<T> slot = slots.getFirst();
+                r.withProperty("so" + ids[0], o -> {
+                    setRO(o);
+                    return HTMLGenerator.encodeHTML((String)value(slot));
                 });
             } else {
                 for (i = 0; i < ids.length; i++) {
-                    final Function<T, ?> function = functions[i];
+                    final Slot<T> slot = slots.get(i);
                     r.withProperty("so" + ids[i], o -> {
                         setRO(o);
-                        o = objectUnwrapped;
-                        Object v = function.apply(o);
+                        Object v = value(slot);
                         if (v == null && grid instanceof TreeGrid) {
                             v = "";
                         }
-                        return Objects.requireNonNull(ApplicationEnvironment.get()).toDisplay(v);
+                        return Objects.requireNonNull(getEnvironment()).toDisplay(v);
                     });
                 }
             }
@@ -1523,13 +1710,11 @@ public interface HasColumns<T> extends ExecutableView, SupportWindowMode {
                     columnComparators2.put(columnName, columnSorter);
                     return r;
                 }
-                final Function<T, ?> compareFunction = functions[0];
-                @SuppressWarnings("rawtypes") ValueProvider<T, Comparable> valueProvider = o -> {
-                    setRO(o);
-                    o = objectUnwrapped;
-                    Object v = compareFunction.apply(o);
+                final Slot<T> compareSlot = slots.getFirst();
+                final Slot<T> keySlot = slot(o -> {
+                    Object v = value(compareSlot);
                     if (!(v instanceof Comparable)) {
-                        ApplicationEnvironment ae = ApplicationEnvironment.get();
+                        ApplicationEnvironment ae = getEnvironment();
                         if (ae == null) {
                             v = v.toString();
                         } else {
@@ -1539,7 +1724,11 @@ public interface HasColumns<T> extends ExecutableView, SupportWindowMode {
                     if (v instanceof String && hc.ignoreCaseForColumnSorting(columnName)) {
                         v = ((String) v).toLowerCase();
                     }
-                    return (Comparable<?>) v;
+                    return v;
+                });
+                @SuppressWarnings("rawtypes") ValueProvider<T, Comparable> valueProvider = o -> {
+                    setRO(o);
+                    return (Comparable<?>) value(keySlot);
                 };
                 columnComparators1.put(columnName, valueProvider);
             }
@@ -3,12 +3,22 @@ package com.storedobject.vaadin;
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.server.AbstractStreamResource;
+import com.vaadin.flow.server.StreamRegistration;
+import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.server.StreamResourceRegistry;
+import com.vaadin.flow.server.VaadinSession;
 
 import java.awt.*;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
  * Enhancement to Vaadin's {@link com.vaadin.flow.component.html.Image} component with proper resource handling.
+ * <p>An image file can be set as a "responsive" source (see {@link #setSource(Path, String, int...)}) so that the
+ * browser downloads a scaled-down variant that suits the displayed size (see {@link ImageVariants}).</p>
  *
  * @author Syam
  */
@@ -17,6 +27,10 @@ public class Image extends com.vaadin.flow.component.html.Image implements Resou
     private static final String NOT_LOADED = "Image not loaded";
     private static final String NO_IMAGE = "No image";
     private final ResourceSupport resourceSupport;
+    private final List<StreamResource> variants = new ArrayList<>();
+    private final List<StreamRegistration> variantRegistrations = new ArrayList<>();
+    private int[] variantWidths;
+    private int originalWidth;
 
     /**
      * Image constructor.
@@ -54,6 +68,7 @@ public class Image extends com.vaadin.flow.component.html.Image implements Resou
      * @param source Image resource source URL
      */
     public void setSource(String source) {
+        clearVariants();
         resourceSupport.clear();
         if(source == null) {
             setSource(new PaintedImageResource((Consumer< Graphics2D>)null));
@@ -85,12 +100,102 @@ public class Image extends com.vaadin.flow.component.html.Image implements Resou
         if(source == null) {
             setSource((String)null);
         } else {
+            clearVariants();
             resourceSupport.register(source);
             setAlt(NOT_LOADED);
             super.setSrc(source);
         }
     }
 
+    /**
+     * Set an image file as a "responsive" source. Variants of the image are created for the given widths and
+     * they are set as the "srcset" of the image so that the browser picks the most suitable one for the displayed
+     * size. The variants are generated only when requested by the browser and are cached on disk
+     * (see {@link ImageVariants}). The original image is set as the "src" (used by browsers that do not support
+     * "srcset") and is also included in the "srcset" with its own width so that the browser can pick it when none of
+     * the variants is wide enough (widths that are not narrower than the original are ignored). Lazy loading is also
+     * switched on (see {@link #setLazyLoading(boolean)}).
+     *
+     * @param file Image file.
+     * @param sizes Value of the "sizes" attribute (for example, "(max-width: 600px) 120px, 50vw"). If
+     *              <code>null</code> is passed, "100vw" is assumed.
+     * @param widths Widths of the variants in pixels.
+     */
+    public void setSource(Path file, String sizes, int... widths) {
+        if(file == null) {
+            setSource((String)null);
+            return;
+        }
+        setSource(new RangeStreamResource(file));
+        originalWidth = ImageVariants.getWidth(file);
+        variantWidths = Arrays.stream(widths).filter(w -> w > 0 && (originalWidth <= 0 || w < originalWidth))
+                .distinct().sorted().toArray();
+        for(int w: variantWidths) {
+            variants.add(ImageVariants.createResource(file, w));
+        }
+        getElement().setAttribute("sizes", sizes == null ? "100vw" : sizes);
+        registerVariants();
+        setLazyLoading(true);
+    }
+
+    /**
+     * Switch on/off lazy loading. If switched on, the browser loads the image only when it is about to be
+     * scrolled into the view and the image is decoded asynchronously.
+     *
+     * @param lazy True to switch on.
+     */
+    public void setLazyLoading(boolean lazy) {
+        if(lazy) {
+            getElement().setAttribute("loading", "lazy");
+            getElement().setAttribute("decoding", "async");
+        } else {
+            getElement().removeAttribute("loading");
+            getElement().removeAttribute("decoding");
+        }
+    }
+
+    private void registerVariants() {
+        if(variants.isEmpty() || !variantRegistrations.isEmpty()) {
+            return;
+        }
+        VaadinSession session = VaadinSession.getCurrent();
+        if(session == null) {
+            return;
+        }
+        StringBuilder srcset = new StringBuilder();
+        for(int i = 0; i < variants.size(); i++) {
+            StreamResource r = variants.get(i);
+            variantRegistrations.add(session.getResourceRegistry().registerResource(r));
+            if(i > 0) {
+                srcset.append(", ");
+            }
+            srcset.append(StreamResourceRegistry.getURI(r).toASCIIString()).append(' ').append(variantWidths[i])
+                    .append('w');
+        }
+        String original = resourceSupport.getURI();
+        if(originalWidth > 0 && original != null) {
+            srcset.append(", ").append(original).append(' ').append(originalWidth).append('w');
+        }
+        getElement().setAttribute("srcset", srcset.toString());
+    }
+
+    private void unregisterVariants() {
+        variantRegistrations.forEach(StreamRegistration::unregister);
+        variantRegistrations.clear();
+    }
+
+    private void clearVariants() {
+        if(variants.isEmpty()) {
+            return;
+        }
+        unregisterVariants();
+        variants.clear();
+        variantWidths = null;
+        originalWidth = 0;
+        getElement().removeAttribute("srcset");
+        getElement().removeAttribute("sizes");
+    }
+
 
     /**
      * Set the image resource source.
@@ -106,12 +211,14 @@ public class Image extends com.vaadin.flow.component.html.Image implements Resou
     protected void onAttach(AttachEvent attachEvent) {
         super.onAttach(attachEvent);
         resourceSupport.register();
+        registerVariants();
     }
 
     @Override
     protected void onDetach(DetachEvent detachEvent) {
         super.onDetach(detachEvent);
         resourceSupport.unregister();
+        unregisterVariants();
     }
 
     /**
@@ -0,0 +1,357 @@
+package com.storedobject.vaadin;
+
+import com.storedobject.vaadin.util.ChunkStore;
+import com.storedobject.vaadin.util.WorkerThreads;
+import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.server.StreamResourceWriter;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+/**
+ * Width-based variants (scaled-down versions) of images. Variants are generated on demand (when the browser
+ * requests them) and are kept in a size-bounded disk cache that is shared by all sessions. The cache is keyed by the
+ * hash of the source image and the width of the variant, so the same image used from different places (or
+ * different files with the same content) shares the variants.
+ * <p>Variants are written in the format of the source image if it can be written (PNG, JPEG, GIF etc.). Otherwise,
+ * PNG is used so that transparency, if any, is retained. Variants are generated by a bounded pool of threads so
+ * that a burst of requests doesn't decode many large images at the same time.</p>
+ * <p>This is used by {@link Image#setSource(Path, String, int...)} to set the "srcset" of an image so that the
+ * browser downloads only the variant that suits the displayed size.</p>
+ *
+ * @author Syam
+ */
+public final class ImageVariants {
+
+    private static Path directory;
+    private static long maxBytes = 256L << 20, bytes = 0;
+    private static final Map<String, Long> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private static final Map<String, String> hashes = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > 1000;
+        }
+    };
+    private static final Map<String, Boolean> originals = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > 1000;
+        }
+    };
+    private static final Map<String, Integer> pinned = new HashMap<>();
+    private static final Map<String, CompletableFuture<Path>> generating = new ConcurrentHashMap<>();
+    private static final ExecutorService generators = WorkerThreads.executor("so-image-variant",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
+    private ImageVariants() {
+    }
+
+    /**
+     * Set the cache directory and its size limit. Files already in the directory are taken into the cache.
+     * (By default, a temporary directory is used with a limit of 256 MB).
+     *
+     * @param cacheDirectory Directory.
+     * @param maxCacheBytes Maximum size of the cache in bytes.
+     * @throws IOException If the directory can not be created or read.
+     */
+    public static void setCache(Path cacheDirectory, long maxCacheBytes) throws IOException {
+        Files.createDirectories(cacheDirectory);
+        List<Path> files;
+        try(Stream<Path> list = Files.list(cacheDirectory)) {
+            files = new ArrayList<>(list.filter(Files::isRegularFile).toList());
+        }
+        files.sort(Comparator.comparingLong(ImageVariants::modified));
+        synchronized(entries) {
+            directory = cacheDirectory;
+            maxBytes = maxCacheBytes;
+            entries.clear();
+            bytes = 0;
+            for(Path f: files) {
+                long size = Files.size(f);
+                entries.put(f.getFileName().toString(), size);
+                bytes += size;
+            }
+            trim();
+        }
+    }
+
+    private static long modified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch(IOException e) {
+            return 0;
+        }
+    }
+
+    private static Path directory() throws IOException {
+        synchronized(entries) {
+            if(directory == null) {
+                directory = Files.createTempDirectory("so-variants");
+            }
+            return directory;
+        }
+    }
+
+    /**
+     * Create a resource that serves a variant of an image file. The variant is generated (or taken from the cache)
+     * when it is requested. If the image is narrower than the requested width, the image itself is served.
+     *
+     * @param file Image file.
+     * @param width Width of the variant in pixels.
+     * @return Resource.
+     */
+    public static StreamResource createResource(Path file, int width) {
+        String name = file.getFileName().toString();
+        int p = name.lastIndexOf('.');
+        name = (p > 0 ? name.substring(0, p) : name) + "-" + width + extension(file);
+        StreamResource resource = new StreamResource(name, (StreamResourceWriter) (out, session) -> {
+            String key = key(file, width);
+            Path variant = get(file, width, key, true);
+            if(variant == file) {
+                Files.copy(variant, out);
+                return;
+            }
+            try {
+                Files.copy(variant, out);
+            } finally {
+                unpin(key);
+            }
+        });
+        resource.setCacheTime(24L * 3600000L);
+        return resource;
+    }
+
+    /**
+     * Get the width of an image file. Only the header of the image is read (the image is not decoded).
+     *
+     * @param file Image file.
+     * @return Width in pixels or 0 if it can not be determined.
+     */
+    public static int getWidth(Path file) {
+        try(ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if(in == null) {
+                return 0;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if(!readers.hasNext()) {
+                return 0;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return reader.getWidth(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch(IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Get a variant of an image file. The variant is generated if it is not yet in the cache.
+     *
+     * @param file Image file.
+     * @param width Width of the variant in pixels.
+     * @return Path of the variant (could be the image file itself if it is not wider than the given width).
+     * @throws IOException If the image can not be read or the variant can not be written.
+     */
+    public static Path get(Path file, int width) throws IOException {
+        return get(file, width, key(file, width), false);
+    }
+
+    /*
+     * If "pin" is true, the variant returned (unless it is the image file itself) is pinned so that it is not removed
+     * from the cache till it is unpinned.
+     */
+    private static Path get(Path file, int width, String key, boolean pin) throws IOException {
+        Path dir = directory();
+        CompletableFuture<Path> f = new CompletableFuture<>();
+        boolean waited = false;
+        while(true) {
+            synchronized(entries) {
+                if(originals.get(key) != null) {
+                    return file;
+                }
+                if(entries.get(key) != null) {
+                    Path variant = dir.resolve(key);
+                    if(Files.exists(variant)) {
+                        if(pin) {
+                            pinned.merge(key, 1, Integer::sum);
+                        }
+                        return variant;
+                    }
+                    bytes -= entries.remove(key);
+                }
+            }
+            if(waited) { // Already removed from the cache, so generate it here
+                break;
+            }
+            CompletableFuture<Path> running = generating.putIfAbsent(key, f);
+            if(running == null) {
+                break;
+            }
+            try {
+                running.join();
+            } catch(Exception e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e);
+            }
+            waited = true; // Look in the cache again so that it can be pinned
+        }
+        generators.execute(() -> {
+            try {
+                f.complete(generate(file, width, dir, key, pin));
+            } catch(Throwable e) {
+                f.completeExceptionally(e);
+            } finally {
+                generating.remove(key, f);
+            }
+        });
+        try {
+            return f.join();
+        } catch(Exception e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e);
+        }
+    }
+
+    private static void unpin(String key) {
+        synchronized(entries) {
+            if(pinned.merge(key, -1, Integer::sum) <= 0) {
+                pinned.remove(key);
+                trim();
+            }
+        }
+    }
+
+    private static String key(Path file, int width) throws IOException {
+        return hash(file) + "-" + width + extension(file);
+    }
+
+    private static Path generate(Path file, int width, Path dir, String key, boolean pin) throws IOException {
+        BufferedImage image;
+        try(InputStream in = Files.newInputStream(file)) {
+            image = ImageIO.read(in);
+        }
+        if(image == null) {
+            throw new IOException("Unable to decode image - " + file);
+        }
+        String format = extension(file).substring(1);
+        if(image.getWidth() <= width) {
+            if(format.equals(suffix(file))) {
+                synchronized(entries) {
+                    originals.put(key, Boolean.TRUE);
+                }
+                return file;
+            }
+            width = image.getWidth(); // Not in a format that can be served under the variant's name
+        }
+        boolean alpha = image.getColorModel().hasAlpha() && switch(format) {
+            case "png", "gif", "tif", "tiff" -> true;
+            default -> false;
+        };
+        int height = Math.max(1, (int) Math.round((double) image.getHeight() * width / image.getWidth()));
+        BufferedImage scaled = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        Path tmp = Files.createTempFile(dir, "tmp", null);
+        try {
+            if(!ImageIO.write(scaled, format, tmp.toFile())) {
+                throw new IOException("Unable to write image variant in " + format + " format - " + file);
+            }
+            Path variant = dir.resolve(key);
+            Files.move(tmp, variant, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long size = Files.size(variant);
+            synchronized(entries) {
+                Long old = entries.put(key, size);
+                bytes += size - (old == null ? 0 : old);
+                if(pin) {
+                    pinned.merge(key, 1, Integer::sum);
+                }
+                trim();
+            }
+            return variant;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void trim() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while(bytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> e = iterator.next();
+            if(pinned.containsKey(e.getKey())) { // Being copied now
+                continue;
+            }
+            iterator.remove();
+            bytes -= e.getValue();
+            try {
+                Files.deleteIfExists(directory.resolve(e.getKey()));
+            } catch(IOException ignored) {
+            }
+        }
+    }
+
+    /*
+     * Extension (and format) of the variants - same as that of the source image if it can be written, otherwise PNG.
+     * The original image is served as a variant only if it is in the same format so that the content type
+     * (determined from the name of the variant resource) is correct.
+     */
+    private static String extension(Path file) {
+        String suffix = suffix(file);
+        return !suffix.isEmpty() && ImageIO.getImageWritersBySuffix(suffix).hasNext() ? "." + suffix : ".png";
+    }
+
+    private static String suffix(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        int p = name.lastIndexOf('.');
+        String suffix = p < 0 ? "" : name.substring(p + 1);
+        return suffix.equals("jpeg") ? "jpg" : suffix;
+    }
+
+    private static String hash(Path file) throws IOException {
+        Path path = file.toAbsolutePath().normalize();
+        String id = path + "|" + Files.size(path) + "|" + Files.getLastModifiedTime(path).toMillis();
+        synchronized(hashes) {
+            String hash = hashes.get(id);
+            if(hash != null) {
+                return hash;
+            }
+        }
+        MessageDigest digest = ChunkStore.sha256();
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            while(channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        String hash = ChunkStore.hex(digest.digest());
+        synchronized(hashes) {
+            hashes.put(id, hash);
+        }
+        return hash;
+    }
+}
@@ -4,6 +4,8 @@ import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.server.AbstractStreamResource;
 
+import java.nio.file.Path;
+
 /**
  * A Home {@link View} that shows an image (typically used to show a background image).
  *
@@ -81,6 +83,17 @@ public class ImageView extends View implements HomeView {
         image.setSource(source);
     }
 
+    /**
+     * Set an image file as the "responsive" source of the image content. Scaled-down variants of the given widths
+     * are served to the browser depending on the screen size (see {@link Image#setSource(Path, String, int...)}).
+     *
+     * @param file Image file.
+     * @param widths Widths of the variants in pixels.
+     */
+    public void setSource(Path file, int... widths) {
+        image.setSource(file, "100vw", widths);
+    }
+
     /**
      * Get the image component that will be set as the component of this view. The default implementation returns
      * the {@link Div} with image embedded in it. The image will be stretched or squished to fit.
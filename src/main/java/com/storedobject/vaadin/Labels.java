@@ -0,0 +1,194 @@
+package com.storedobject.vaadin;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bounded, application-wide cache of the labels created by {@link ApplicationEnvironment#createLabel(String)} and
+ * {@link ApplicationEnvironment#createLabel(Class)}. Column headers, form labels and view captions are obtained via
+ * this cache so that the same labels are not generated again and again whenever grids and forms are created.
+ * <p>Labels are cached against the class of the {@link ApplicationEnvironment} (see
+ * {@link ApplicationEnvironment#getLabelCacheKey()}), the locale of the {@link Application} and the attribute name
+ * (or class). So, the labels are shared by all the sessions and the "createLabel" methods of the environment should
+ * not depend on anything else. The least recently used labels are removed when the number of labels for a class and
+ * locale exceeds the limit (see {@link #setLimit(int)}).</p>
+ * <p>The cache can be filled at startup via {@link #precompute(ApplicationEnvironment, Locale, Class[])} so that the
+ * labels are ready even before the first request.</p>
+ *
+ * @author Syam
+ */
+public final class Labels {
+
+    private static final Map<Scope, Map<Key, Label>> labels = new ConcurrentHashMap<>();
+    private static volatile int limit = 10000;
+
+    private Labels() {
+    }
+
+    /**
+     * Get the label for an attribute name.
+     *
+     * @param environment Application environment that creates the label if it is not found in the cache.
+     * @param attributeName Attribute name.
+     * @return Label.
+     */
+    public static String get(ApplicationEnvironment environment, String attributeName) {
+        return get(environment, locale(), attributeName);
+    }
+
+    /**
+     * Get the label for a class.
+     *
+     * @param environment Application environment that creates the label if it is not found in the cache.
+     * @param aClass Class.
+     * @return Label.
+     */
+    public static String get(ApplicationEnvironment environment, Class<?> aClass) {
+        return get(environment, locale(), aClass);
+    }
+
+    private static String get(ApplicationEnvironment environment, Locale locale, String attributeName) {
+        Map<Key, Label> map = map(environment, locale);
+        Key key = new Key(attributeName, null);
+        String label = get(map, key);
+        if(label == null) {
+            label = environment.createLabel(attributeName);
+            put(map, key, label);
+        }
+        return label;
+    }
+
+    private static String get(ApplicationEnvironment environment, Locale locale, Class<?> aClass) {
+        Map<Key, Label> map = map(environment, locale);
+        Key key = new Key(null, aClass);
+        String label = get(map, key);
+        if(label == null) {
+            label = environment.createLabel(aClass);
+            put(map, key, label);
+        }
+        return label;
+    }
+
+    /**
+     * Create the labels for the given classes and their attributes (attributes are determined from the "get" and
+     * "is" methods of the class) and keep them in the cache.
+     *
+     * @param environment Application environment to create the labels.
+     * @param locale Locale for which labels are created (<code>null</code> if the locale of the {@link Application}
+     *               is not set).
+     * @param classes Classes.
+     */
+    public static void precompute(ApplicationEnvironment environment, Locale locale, Class<?>... classes) {
+        for(Class<?> c: classes) {
+            get(environment, locale, c);
+            for(Method m: c.getMethods()) {
+                if(Modifier.isStatic(m.getModifiers()) || m.getParameterCount() > 0) {
+                    continue;
+                }
+                String name = m.getName();
+                if(name.equals("getClass")) {
+                    continue;
+                }
+                if(name.startsWith("get") && name.length() > 3) {
+                    get(environment, locale, name.substring(3));
+                } else if(name.startsWith("is") && name.length() > 2) {
+                    get(environment, locale, name.substring(2));
+                }
+            }
+        }
+    }
+
+    /**
+     * Set the maximum number of labels to be kept in the cache for each {@link ApplicationEnvironment} class and
+     * locale.
+     *
+     * @param limit Limit (Default is 10,000).
+     */
+    public static void setLimit(int limit) {
+        Labels.limit = limit;
+        labels.values().forEach(Labels::trim);
+    }
+
+    /**
+     * Get the number of labels currently in the cache.
+     *
+     * @return Number of labels.
+     */
+    public static int size() {
+        return labels.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * Clear the cache.
+     */
+    public static void clear() {
+        labels.clear();
+    }
+
+    private static Map<Key, Label> map(ApplicationEnvironment environment, Locale locale) {
+        return labels.computeIfAbsent(new Scope(environment.getLabelCacheKey(), locale),
+                k -> new ConcurrentHashMap<>());
+    }
+
+    private static String get(Map<Key, Label> map, Key key) {
+        Label label = map.get(key);
+        if(label == null) {
+            return null;
+        }
+        label.used = System.nanoTime();
+        return label.label;
+    }
+
+    private static void put(Map<Key, Label> map, Key key, String label) {
+        if(label != null) {
+            map.put(key, new Label(label));
+            if(map.size() > limit) {
+                trim(map);
+            }
+        }
+    }
+
+    /*
+     * Removes the least recently used labels. (Trimmed to 90% of the limit so that it doesn't happen on every put).
+     */
+    private static void trim(Map<Key, Label> map) {
+        synchronized(map) {
+            int size = map.size(), keep = limit - limit / 10;
+            if(size <= limit) {
+                return;
+            }
+            List<Map.Entry<Key, Label>> entries = new ArrayList<>(map.entrySet());
+            entries.sort(Comparator.comparingLong(e -> e.getValue().used));
+            for(int i = 0; i < entries.size() - keep; i++) {
+                map.remove(entries.get(i).getKey(), entries.get(i).getValue());
+            }
+        }
+    }
+
+    private static Locale locale() {
+        Application a = Application.get();
+        return a == null ? null : a.getLocale();
+    }
+
+    private record Scope(Object cacheKey, Locale locale) {
+    }
+
+    private record Key(String name, Class<?> type) {
+    }
+
+    private static class Label {
+
+        private final String label;
+        private volatile long used = System.nanoTime();
+
+        private Label(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.storedobject.vaadin;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * A sink where the log entries of the {@link Application} are sent to. The sink used by an application is determined
+ * by {@link ApplicationEnvironment#getLogSink()} and by default, it is the shared {@link AsyncLogSink} instance
+ * that writes to the System error stream from a background thread.
+ * <p>Implementations must be thread-safe and should return quickly because {@link #log(Entry)} is typically invoked
+ * from the request threads.</p>
+ *
+ * @author Syam
+ */
+@FunctionalInterface
+public interface LogSink {
+
+    /**
+     * Log an entry.
+     *
+     * @param entry Entry to log.
+     */
+    void log(Entry entry);
+
+    /**
+     * A log entry with its structured fields.
+     *
+     * @author Syam
+     */
+    final class Entry {
+
+        private final long time;
+        private final String session;
+        private final String view;
+        private final String message;
+        private final Throwable error;
+
+        /**
+         * Constructor.
+         *
+         * @param session Session identifier (could be <code>null</code>).
+         * @param view Caption of the view (could be <code>null</code>).
+         * @param message Message to log, it could be a {@link Throwable}. (It is converted to a string right away, so
+         *                the entry doesn't hold any reference to the object passed).
+         * @param error Error to log (could be <code>null</code>).
+         */
+        public Entry(String session, String view, Object message, Throwable error) {
+            this.time = System.currentTimeMillis();
+            this.session = session;
+            this.view = view;
+            if(error == null && message instanceof Throwable t) {
+                this.message = null;
+                this.error = t;
+            } else {
+                this.message = message == null ? null : message.toString();
+                this.error = error;
+            }
+        }
+
+        /*
+         * Copy of an entry with another message and without the error.
+         */
+        Entry(Entry entry, String message) {
+            this.time = entry.time;
+            this.session = entry.session;
+            this.view = entry.view;
+            this.message = message;
+            this.error = null;
+        }
+
+        /**
+         * Get the time at which this entry was created.
+         *
+         * @return Time in milliseconds.
+         */
+        public long getTime() {
+            return time;
+        }
+
+        /**
+         * Get the session identifier.
+         *
+         * @return Session identifier (could be <code>null</code>).
+         */
+        public String getSession() {
+            return session;
+        }
+
+        /**
+         * Get the caption of the view that was active when the entry was created.
+         *
+         * @return View caption (could be <code>null</code>).
+         */
+        public String getView() {
+            return view;
+        }
+
+        /**
+         * Get the message.
+         *
+         * @return Message (could be <code>null</code> if only an error is logged).
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * Get the error.
+         *
+         * @return Error (could be <code>null</code>).
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        /**
+         * Get the stack trace of the error as a string.
+         *
+         * @return Stack trace or <code>null</code> if no error is associated with this entry.
+         */
+        public String getStackTrace() {
+            if(error == null) {
+                return null;
+            }
+            StringWriter sw = new StringWriter();
+            error.printStackTrace(new PrintWriter(sw));
+            return sw.toString();
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.storedobject.vaadin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A {@link RangeStreamResource} backed by a memory-mapped file. All the resources for the same file share a single
+ * read-only mapping and every reader gets its own "slice" of the mapping, so concurrent requests (including range
+ * requests) don't open the file again or copy it into byte arrays.
+ * <p>Mappings are kept in a bounded cache (see {@link #setCacheLimit(long)}). A mapping is referenced while any
+ * resource for that file is registered via {@link ResourceSupport} and it is unmapped once the last reference is
+ * dropped and no reader is using it, if the cache limit is exceeded. (Mappings that are not referenced are kept as
+ * long as the cache limit permits). A mapping that is no longer in the cache (because another mapping of the same file
+ * replaced it) is unmapped as soon as it is not referenced and no reader is using it.</p>
+ *
+ * @author Syam
+ */
+public class MappedFileResource extends RangeStreamResource implements ResourceSupport.ReferenceCounted {
+
+    private static final int SEGMENT = 1 << 30;
+    private static final Map<String, Mapping> mappings = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cacheLimit = 1L << 30, mapped = 0;
+    private final Mapping mapping;
+
+    /**
+     * Constructor.
+     *
+     * @param file File to be served.
+     * @throws IOException If the file can not be mapped.
+     */
+    public MappedFileResource(Path file) throws IOException {
+        this(file, mapping(file));
+    }
+
+    private MappedFileResource(Path file, Mapping mapping) {
+        super(file.getFileName().toString(), mapping);
+        this.mapping = mapping;
+        try {
+            String type = Files.probeContentType(file);
+            if(type != null) {
+                setContentType(type);
+            }
+        } catch(IOException ignored) {
+        }
+    }
+
+    /**
+     * Set the limit of the mapping cache. Mappings that are not referenced are unmapped if the total size of
+     * the mappings exceeds this limit.
+     *
+     * @param limit Limit in bytes (Default is 1 GB).
+     */
+    public static void setCacheLimit(long limit) {
+        synchronized(mappings) {
+            cacheLimit = limit;
+            trim();
+        }
+    }
+
+    /**
+     * Get the total size of the mappings currently held.
+     *
+     * @return Size in bytes.
+     */
+    public static long getMappedBytes() {
+        synchronized(mappings) {
+            return mapped;
+        }
+    }
+
+    /**
+     * Open an independent stream over the content. The stream reads from its own slice of the shared mapping.
+     *
+     * @return Stream.
+     */
+    public InputStream openStream() {
+        return new SliceStream(mapping);
+    }
+
+    @Override
+    public void acquire() {
+        synchronized(mappings) {
+            ++mapping.references;
+        }
+    }
+
+    @Override
+    public void release() {
+        synchronized(mappings) {
+            if(mapping.references > 0) {
+                --mapping.references;
+            }
+            mapping.released();
+            trim();
+        }
+    }
+
+    private static Mapping mapping(Path file) throws IOException {
+        Path path = file.toAbsolutePath().normalize();
+        String key = path + "|" + Files.size(path) + "|" + Files.getLastModifiedTime(path).toMillis();
+        synchronized(mappings) {
+            Mapping m = mappings.get(key);
+            if(m == null) {
+                m = new Mapping(key, path);
+                mappings.put(key, m);
+                mapped += m.size;
+                trim();
+            }
+            return m;
+        }
+    }
+
+    private static void trim() {
+        Iterator<Mapping> iterator = mappings.values().iterator();
+        while(mapped > cacheLimit && iterator.hasNext()) {
+            Mapping m = iterator.next();
+            if(m.references == 0 && m.readers == 0) {
+                iterator.remove();
+                mapped -= m.size;
+                m.unmap();
+            }
+        }
+    }
+
+    private static class Mapping implements Source {
+
+        private final String key;
+        private final Path file;
+        private final long size, modified;
+        private MappedByteBuffer[] segments;
+        private int references = 0, readers = 0;
+
+        private Mapping(String key, Path file) throws IOException {
+            this.key = key;
+            this.file = file;
+            size = Files.size(file);
+            modified = Files.getLastModifiedTime(file).toMillis();
+            map();
+        }
+
+        private void map() throws IOException {
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if(channel.size() != size) {
+                    throw new IOException("File changed - " + file);
+                }
+                int n = (int) ((size + SEGMENT - 1) / SEGMENT);
+                MappedByteBuffer[] s = new MappedByteBuffer[n];
+                for(int i = 0; i < n; i++) {
+                    long position = (long) i * SEGMENT;
+                    s[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT, size - position));
+                }
+                segments = s;
+            }
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public long lastModified() {
+            return modified;
+        }
+
+        @Override
+        public String tag() {
+            return Long.toHexString(size) + "-" + Long.toHexString(modified);
+        }
+
+        /*
+         * Returns a private slice of the mapping from the given position to the end of its segment. Must be called
+         * only while reading (the mapping will not be unmapped while there are readers).
+         */
+        private ByteBuffer slice(long position) {
+            return segments[(int) (position / SEGMENT)].duplicate().position((int) (position % SEGMENT));
+        }
+
+        private void startReading() throws IOException {
+            synchronized(mappings) {
+                if(segments == null) { // Unmapped earlier
+                    map();
+                    Mapping m = mappings.put(key, this);
+                    if(m != null) { // Another mapping was created for the same file in the meantime
+                        mapped -= m.size;
+                        m.released();
+                    }
+                    mapped += size;
+                }
+                ++readers;
+            }
+        }
+
+        private void stopReading() {
+            synchronized(mappings) {
+                --readers;
+                released();
+                trim();
+            }
+        }
+
+        /*
+         * Unmaps this mapping if it is no more in the cache and is not used. Must be called while holding the lock.
+         */
+        private void released() {
+            if(references == 0 && readers == 0 && mappings.get(key) != this) {
+                unmap();
+            }
+        }
+
+        @Override
+        public void transfer(long position, long count, OutputStream out) throws IOException {
+            startReading();
+            try {
+                WritableByteChannel target = Channels.newChannel(out);
+                while(count > 0) {
+                    ByteBuffer slice = slice(position);
+                    int n = (int) Math.min(count, slice.remaining());
+                    slice.limit(slice.position() + n);
+                    while(slice.hasRemaining()) {
+                        target.write(slice);
+                    }
+                    position += n;
+                    count -= n;
+                }
+            } finally {
+                stopReading();
+            }
+        }
+
+        private void unmap() {
+            MappedByteBuffer[] s = segments;
+            segments = null;
+            if(s != null) {
+                for(MappedByteBuffer b: s) {
+                    Unmapper.unmap(b);
+                }
+            }
+        }
+    }
+
+    private static class SliceStream extends InputStream {
+
+        private final Mapping mapping;
+        private long position = 0;
+        private ByteBuffer current;
+        private boolean reading = false, closed = false;
+
+        private SliceStream(Mapping mapping) {
+            this.mapping = mapping;
+        }
+
+        private ByteBuffer slice() throws IOException {
+            if(closed) {
+                throw new IOException("Stream closed");
+            }
+            if(!reading) {
+                mapping.startReading();
+                reading = true;
+            }
+            if(position >= mapping.size) {
+                return null;
+            }
+            if(current == null || !current.hasRemaining()) {
+                current = mapping.slice(position);
+            }
+            return current;
+        }
+
+        @Override
+        public int read() throws IOException {
+            ByteBuffer b = slice();
+            if(b == null) {
+                return -1;
+            }
+            ++position;
+            return b.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if(length == 0) {
+                return 0;
+            }
+            ByteBuffer b = slice();
+            if(b == null) {
+                return -1;
+            }
+            int n = Math.min(length, b.remaining());
+            b.get(bytes, offset, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            long s = Math.max(0, Math.min(n, mapping.size - position));
+            position += s;
+            current = null;
+            return s;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, mapping.size - position);
+        }
+
+        @Override
+        public void close() {
+            if(!closed) {
+                closed = true;
+                if(reading) {
+                    mapping.stopReading();
+                }
+            }
+        }
+    }
+
+    /*
+     * Unmaps a buffer immediately if the runtime permits (otherwise, it is unmapped when garbage collected).
+     */
+    private static class Unmapper {
+
+        private static final Object unsafe;
+        private static final Method invokeCleaner;
+
+        static {
+            Object u = null;
+            Method m = null;
+            try {
+                Class<?> c = Class.forName("sun.misc.Unsafe");
+                Field f = c.getDeclaredField("theUnsafe");
+                f.setAccessible(true);
+                u = f.get(null);
+                m = c.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch(Throwable ignored) {
+            }
+            unsafe = u;
+            invokeCleaner = m;
+        }
+
+        private static void unmap(ByteBuffer buffer) {
+            if(invokeCleaner != null) {
+                try {
+                    invokeCleaner.invoke(unsafe, buffer);
+                } catch(Throwable ignored) {
+                }
+            }
+        }
+    }
+}
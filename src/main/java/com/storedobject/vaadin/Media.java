@@ -8,11 +8,13 @@ import com.vaadin.flow.component.UI;
 import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.server.*;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 
 /**
  * Base class for other media classes such as {@link Audio}, {@link Video} etc. Memory leak is prevented from all the
- * {@link StreamResource} set as sources.
+ * {@link StreamResource} set as sources. Sources that are {@link ResourceSupport.ReferenceCounted} hold a reference
+ * while they are registered (as done by {@link ResourceSupport}).
  *
  * @author Syam
  */
@@ -89,6 +91,75 @@ public abstract class Media extends Component implements HasSize {
         reload();
     }
 
+    /**
+     * Set the content with the given hash from the default {@link ContentStore} as the source. The content is shared
+     * with all the other components showing the same content.
+     *
+     * @param contentHash Hash of the content in the store.
+     * @param name Name of the resource (used for determining the content type).
+     * @return True if the content was found in the store and set. (The current sources are not changed otherwise).
+     */
+    public boolean setContentSource(String contentHash, String name) {
+        return setContentSource(ContentStore.getDefault(), contentHash, name);
+    }
+
+    /**
+     * Set the content with the given hash from a {@link ContentStore} as the source. The content is shared with all
+     * the other components showing the same content.
+     *
+     * @param store Content store.
+     * @param contentHash Hash of the content in the store.
+     * @param name Name of the resource (used for determining the content type).
+     * @return True if the content was found in the store and set. (The current sources are not changed otherwise).
+     */
+    public boolean setContentSource(ContentStore store, String contentHash, String name) {
+        ContentStore.SharedResource resource = store.createResource(contentHash, name);
+        if(resource == null) {
+            return false;
+        }
+        setSource(resource);
+        return true;
+    }
+
+    /**
+     * Add the content with the given hash from the default {@link ContentStore} as a source.
+     *
+     * @param contentHash Hash of the content in the store.
+     * @param name Name of the resource (used for determining the content type).
+     * @return True if the content was found in the store and added.
+     */
+    public boolean addContentSource(String contentHash, String name) {
+        ContentStore.SharedResource resource = ContentStore.getDefault().createResource(contentHash, name);
+        if(resource == null) {
+            return false;
+        }
+        addSource(resource);
+        return true;
+    }
+
+    /**
+     * Set a file source. The file is served as a {@link RangeStreamResource} so that the browser can seek
+     * without downloading the whole file.
+     *
+     * @param file File to be set
+     */
+    public void setFileSource(Path file) {
+        clear();
+        addFileSource(file);
+    }
+
+    /**
+     * Add a file source. The file is served as a {@link RangeStreamResource} so that the browser can seek
+     * without downloading the whole file.
+     *
+     * @param file File to be added
+     */
+    public void addFileSource(Path file) {
+        if(file != null) {
+            addSource(new RangeStreamResource(file));
+        }
+    }
+
     /**
      * Set a URI source.
      * @param uri URI source to be set
@@ -118,8 +189,7 @@ public abstract class Media extends Component implements HasSize {
      * Clear the current sources.
      */
     public void clear() {
-        registrations.forEach(StreamRegistration::unregister);
-        registrations.clear();
+        unregister();
         resources.clear();
         getElement().removeAllChildren();
         getElement().setText("Media not supported on this browser!");
@@ -128,8 +198,7 @@ public abstract class Media extends Component implements HasSize {
     @Override
     protected void onDetach(DetachEvent detachEvent) {
         super.onDetach(detachEvent);
-        registrations.forEach(StreamRegistration::unregister);
-        registrations.clear();
+        unregister();
     }
 
     @Override
@@ -152,12 +221,31 @@ public abstract class Media extends Component implements HasSize {
         }
         StreamRegistration r = VaadinSession.getCurrent().getResourceRegistry().registerResource(sr);
         registrations.add(r);
+        if(sr instanceof ResourceSupport.ReferenceCounted rc) {
+            rc.acquire();
+        }
         Element s = new Element("source");
         s.setAttribute("src", StreamResourceRegistry.getURI(sr).toASCIIString());
         s.setAttribute("type", sr.getContentTypeResolver().apply(sr, VaadinServlet.getCurrent().getServletContext()));
         getElement().appendChild(s);
     }
 
+    /*
+     * Either all the resources are registered or none (see registerAll).
+     */
+    private void unregister() {
+        if(registrations.isEmpty()) {
+            return;
+        }
+        registrations.forEach(StreamRegistration::unregister);
+        registrations.clear();
+        resources.forEach(sr -> {
+            if(sr instanceof ResourceSupport.ReferenceCounted rc) {
+                rc.release();
+            }
+        });
+    }
+
     /**
      * Show controls.
      * @param on Whether to show or not
@@ -38,6 +38,27 @@ public interface MediaCapture {
      */
     void stopRecording();
 
+    /**
+     * Set the time-slice for recording. If set to a positive value, the recording is sent to the server in chunks
+     * as it progresses (each chunk containing approximately the given duration of the media) instead of sending
+     * the whole recording after the recording is stopped. Chunks are appended to the output stream of the
+     * "data receiver" in order. This should be set before the recording is started.
+     * <p>The default implementation does nothing.</p>
+     *
+     * @param millis Duration of each chunk in milliseconds. Zero or negative value switches off time-slicing.
+     */
+    default void setTimeSlice(int millis) {
+    }
+
+    /**
+     * Get the time-slice for recording (see {@link #setTimeSlice(int)}).
+     *
+     * @return Duration of each chunk in milliseconds. Zero means time-slicing is not used.
+     */
+    default int getTimeSlice() {
+        return 0;
+    }
+
     /**
      * Check whether previewing is in progress or not. (Only applicable to certain media such as Video).
      *
@@ -90,6 +111,16 @@ public interface MediaCapture {
          */
         OutputStream getOutputStream(String mimeType);
 
+        /**
+         * This method is invoked after each chunk is appended to the output stream when time-slicing is used
+         * (see {@link MediaCapture#setTimeSlice(int)}). The default implementation does nothing.
+         *
+         * @param bytes Number of bytes received so far.
+         * @param bytesPerSecond Average bandwidth (bytes per second) since the first chunk.
+         */
+        default void progress(long bytes, double bytesPerSecond) {
+        }
+
         /**
          * This method is invoked when end-of-stream is reached.
          */
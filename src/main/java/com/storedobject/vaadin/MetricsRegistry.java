@@ -0,0 +1,275 @@
+package com.storedobject.vaadin;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A simple in-memory implementation of {@link ApplicationMetrics}. Latencies are recorded in histograms with
+ * power-of-2 buckets and counters are maintained as {@link LongAdder}s. The registry can be exported via JMX
+ * (see {@link #export(String)}) and each metric will appear as a set of read-only attributes. For example, the
+ * histogram "access.wait" will appear as "access.wait.count", "access.wait.mean", "access.wait.p50",
+ * "access.wait.p99" and "access.wait.max" (times are in milliseconds).
+ * <p>Typically, a single registry is shared by all applications running on a node
+ * (see {@link #getDefault()}).</p>
+ *
+ * @author Syam
+ */
+public class MetricsRegistry implements ApplicationMetrics {
+
+    private static MetricsRegistry defaultRegistry;
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private ObjectName objectName;
+
+    /**
+     * Get the default registry. The default registry is exported via JMX with the name
+     * "com.storedobject.vaadin:type=Metrics".
+     *
+     * @return Default registry.
+     */
+    public static synchronized MetricsRegistry getDefault() {
+        if(defaultRegistry == null) {
+            defaultRegistry = new MetricsRegistry();
+            defaultRegistry.export("com.storedobject.vaadin:type=Metrics");
+        }
+        return defaultRegistry;
+    }
+
+    @Override
+    public void record(String name, long nanos) {
+        histograms.computeIfAbsent(name, k -> new Histogram()).record(nanos);
+    }
+
+    @Override
+    public void count(String name) {
+        counters.computeIfAbsent(name, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Get the current value of a counter.
+     *
+     * @param name Name of the counter.
+     * @return Current value.
+     */
+    public long getCount(String name) {
+        LongAdder a = counters.get(name);
+        if(a != null) {
+            return a.sum();
+        }
+        Histogram h = histograms.get(name);
+        return h == null ? 0 : h.count.get();
+    }
+
+    /**
+     * Get the mean of a latency metric.
+     *
+     * @param name Name of the metric.
+     * @return Mean in milliseconds.
+     */
+    public double getMean(String name) {
+        Histogram h = histograms.get(name);
+        return h == null ? 0 : h.mean();
+    }
+
+    /**
+     * Get the (approximate) percentile of a latency metric.
+     *
+     * @param name Name of the metric.
+     * @param percentile Percentile (0 to 100).
+     * @return Percentile value in milliseconds.
+     */
+    public double getPercentile(String name, double percentile) {
+        Histogram h = histograms.get(name);
+        return h == null ? 0 : h.percentile(percentile);
+    }
+
+    /**
+     * Get the maximum value of a latency metric.
+     *
+     * @param name Name of the metric.
+     * @return Maximum in milliseconds.
+     */
+    public double getMax(String name) {
+        Histogram h = histograms.get(name);
+        return h == null ? 0 : millis(h.max.get());
+    }
+
+    /**
+     * Clear all metrics.
+     */
+    public void reset() {
+        counters.clear();
+        histograms.clear();
+    }
+
+    /**
+     * Export this registry via JMX (to the platform MBean server).
+     *
+     * @param name JMX object name.
+     * @return True if exported successfully.
+     */
+    public synchronized boolean export(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName on = new ObjectName(name);
+            if(server.isRegistered(on)) {
+                server.unregisterMBean(on);
+            }
+            server.registerMBean(new Bean(), on);
+            objectName = on;
+            return true;
+        } catch(Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * Remove this registry from JMX if it was exported earlier.
+     */
+    public synchronized void unexport() {
+        if(objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch(Throwable ignored) {
+            }
+            objectName = null;
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private Object attribute(String attribute) throws AttributeNotFoundException {
+        LongAdder a = counters.get(attribute);
+        if(a != null) {
+            return a.sum();
+        }
+        int p = attribute.lastIndexOf('.');
+        if(p > 0) {
+            Histogram h = histograms.get(attribute.substring(0, p));
+            if(h != null) {
+                switch(attribute.substring(p + 1)) {
+                    case "count" -> {
+                        return h.count.get();
+                    }
+                    case "mean" -> {
+                        return h.mean();
+                    }
+                    case "p50" -> {
+                        return h.percentile(50);
+                    }
+                    case "p99" -> {
+                        return h.percentile(99);
+                    }
+                    case "max" -> {
+                        return millis(h.max.get());
+                    }
+                }
+            }
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    private static class Histogram {
+
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+        private final AtomicLong count = new AtomicLong(), sum = new AtomicLong(), max = new AtomicLong();
+
+        private void record(long nanos) {
+            if(nanos < 0) {
+                nanos = 0;
+            }
+            buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(nanos | 1));
+            count.incrementAndGet();
+            sum.addAndGet(nanos);
+            max.accumulateAndGet(nanos, Math::max);
+        }
+
+        private double mean() {
+            long c = count.get();
+            return c == 0 ? 0 : millis(sum.get() / c);
+        }
+
+        private double percentile(double percentile) {
+            long c = count.get();
+            if(c == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(c * Math.min(Math.max(percentile, 0), 100) / 100.0);
+            long seen = 0;
+            for(int i = 0; i < 64; i++) {
+                seen += buckets.get(i);
+                if(seen >= rank) {
+                    return millis(Math.min(i == 62 ? Long.MAX_VALUE : (2L << i) - 1, max.get()));
+                }
+            }
+            return millis(max.get());
+        }
+    }
+
+    private class Bean implements DynamicMBean {
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            return attribute(attribute);
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException(attribute.getName());
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList list = new AttributeList();
+            for(String a: attributes) {
+                try {
+                    list.add(new Attribute(a, attribute(a)));
+                } catch(AttributeNotFoundException ignored) {
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+            if("reset".equals(actionName)) {
+                reset();
+                return null;
+            }
+            throw new ReflectionException(new NoSuchMethodException(actionName));
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            new TreeSet<>(counters.keySet()).forEach(c -> attributes.add(info(c, "long", "Counter")));
+            new TreeSet<>(histograms.keySet()).forEach(h -> {
+                attributes.add(info(h + ".count", "long", "Number of samples"));
+                attributes.add(info(h + ".mean", "double", "Mean (ms)"));
+                attributes.add(info(h + ".p50", "double", "50th percentile (ms)"));
+                attributes.add(info(h + ".p99", "double", "99th percentile (ms)"));
+                attributes.add(info(h + ".max", "double", "Maximum (ms)"));
+            });
+            MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Clear all metrics",
+                    new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION);
+            return new MBeanInfo(MetricsRegistry.class.getName(), "Application metrics",
+                    attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[] { reset }, null);
+        }
+
+        private static MBeanAttributeInfo info(String name, String type, String description) {
+            return new MBeanAttributeInfo(name, type, description, true, false, false);
+        }
+    }
+}
@@ -70,10 +70,10 @@ public interface ObjectColumnCreator<T> {
      *
      * @param columnName Name of the column
      * @return Header text. Default implementation returns the value from
-     * {@link ApplicationEnvironment#createLabel(String)}.
+     * {@link ApplicationEnvironment#createLabel(String)} (cached via {@link Labels}).
      */
     default String getColumnCaption(@SuppressWarnings("unused") String columnName) {
-        return Objects.requireNonNull(ApplicationEnvironment.get()).createLabel(columnName);
+        return Labels.get(Objects.requireNonNull(ApplicationEnvironment.get()), columnName);
     }
 
     /**
@@ -170,10 +170,11 @@ public interface ObjectFieldCreator<T> {
     /**
      * Determine the label to be used for a field.
      * @param fieldName Field name
-     * @return Default implementation returns the value obtained from {@link ApplicationEnvironment#createLabel(String)}.
+     * @return Default implementation returns the value obtained from {@link ApplicationEnvironment#createLabel(String)}
+     * (cached via {@link Labels}).
      */
     default String getLabel(String fieldName) {
-        return Objects.requireNonNull(ApplicationEnvironment.get()).createLabel(fieldName);
+        return Labels.get(Objects.requireNonNull(ApplicationEnvironment.get()), fieldName);
     }
 
     /**
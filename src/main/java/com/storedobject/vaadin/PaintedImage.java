@@ -1,12 +1,17 @@
 package com.storedobject.vaadin;
 
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.html.Image;
 
 import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
  * Create an image from an AWT image painted on a {@link Graphics2D}. See {@link #paint(Graphics2D)}.
+ * <p>Redraw requests (including the ones caused by changing the properties of the image) are coalesced so that
+ * only one image resource is created per server round-trip.</p>
  *
  * @author Syam
  */
@@ -37,8 +42,14 @@ public class PaintedImage extends Image {
          */
         GIF
     }
+    private static final int PLACEHOLDER_SIZE = 160;
     private final Type type;
     private int widthInPixels, heightInPixels;
+    private Object cacheKey;
+    private boolean async = false, placeholder = false, parallel = false, streaming = false, compressed = false;
+    private boolean redrawPending = false;
+    private List<Object> drawn;
+    private PaintedImageResource current;
 
     /**
      * Create a 100x100 pixels SVG image.
@@ -109,6 +120,11 @@ public class PaintedImage extends Image {
         this.painter = painter;
         this.widthInPixels = widthInPixels;
         this.heightInPixels = heightInPixels;
+        addAttachListener(e -> {
+            if(redrawPending) {
+                draw();
+            }
+        });
         redraw();
     }
 
@@ -127,8 +143,11 @@ public class PaintedImage extends Image {
      * @param width Width of the image in pixels
      */
     public void setImageWidth(int width) {
+        if(width == widthInPixels) {
+            return;
+        }
         this.widthInPixels = width;
-        redraw();
+        schedule();
     }
 
     /**
@@ -146,8 +165,11 @@ public class PaintedImage extends Image {
      * @param height Height of the image in pixels
      */
     public void setImageHeight(int height) {
+        if(height == heightInPixels) {
+            return;
+        }
         this.heightInPixels = height;
-        redraw();
+        schedule();
     }
 
     /**
@@ -160,10 +182,164 @@ public class PaintedImage extends Image {
     }
 
     /**
-     * Redraw the image.
+     * Redraw the image. The actual drawing happens only once just before the response is sent to the client even
+     * if this method is invoked many times in the same server round-trip. The image is always painted again (even if
+     * nothing else is changed) because the painter may paint something different now.
      */
     public void redraw() {
-        setSrc(new PaintedImageResource(type, this::paint, widthInPixels, heightInPixels));
+        drawn = null;
+        schedule();
+    }
+
+    /*
+     * Changes made via the setters are coalesced. If they result in the same image that is already drawn (same
+     * painter and attributes), the current resource is reused.
+     */
+    private void schedule() {
+        if(redrawPending) {
+            return;
+        }
+        redrawPending = true;
+        UI ui = UI.getCurrent();
+        if(ui == null) {
+            draw();
+        } else {
+            ui.beforeClientResponse(this, context -> {
+                if(redrawPending) {
+                    draw();
+                }
+            });
+        }
+    }
+
+    private void draw() {
+        redrawPending = false;
+        List<Object> signature = cacheKey == null ? null : Arrays.asList(painter, type, widthInPixels,
+                heightInPixels, cacheKey, async, placeholder, parallel, streaming, compressed);
+        if(signature != null && signature.equals(drawn)) {
+            return; // Output will be identical, so the current resource can be reused
+        }
+        drawn = signature;
+        PaintedImageResource resource = new PaintedImageResource(type, this::paint, widthInPixels, heightInPixels);
+        resource.setCacheKey(cacheKey);
+        resource.setParallel(parallel);
+        resource.setStreaming(streaming);
+        if(compressed) {
+            resource.setCompressed(true);
+        }
+        current = resource;
+        if(!async) {
+            setSrc(resource);
+            return;
+        }
+        resource.renderInBackground();
+        UI ui = getUI().orElse(null);
+        if(!placeholder || ui == null || resource.isRendered()) {
+            setSrc(resource);
+            return;
+        }
+        int max = Math.max(widthInPixels, heightInPixels);
+        if(max > PLACEHOLDER_SIZE) {
+            double scale = (double) PLACEHOLDER_SIZE / max;
+            setSrc(new PaintedImageResource(type, g -> {
+                g.scale(scale, scale);
+                paint(g);
+            }, Math.max(1, (int) (widthInPixels * scale)), Math.max(1, (int) (heightInPixels * scale))));
+        }
+        resource.whenRendered(() -> ui.access(() -> {
+            if(current == resource) { // A newer one may have been drawn in the meantime
+                setSrc(resource);
+            }
+        }), error -> ui.access(() -> {
+            if(current != resource) {
+                return;
+            }
+            drawn = null; // Allow redrawing
+            getElement().removeAttribute("src");
+            Application a = Application.get();
+            if(a != null) {
+                a.log("Unable to render image", error);
+            }
+        }));
+    }
+
+    /**
+     * Set the asynchronous rendering mode. In this mode, the image is rendered in the background on a shared pool of
+     * worker threads (see {@link PaintedImageResource#renderInBackground()}). If the "placeholder" option is on, a
+     * low-resolution version of the image is displayed until the rendering is complete. (Please note that the
+     * painter will be invoked from the worker threads and hence, it must not access the UI).
+     * The image will be redrawn.
+     *
+     * @param async True to switch on the asynchronous mode.
+     * @param placeholder True to display a low-resolution placeholder image while the rendering is in progress.
+     */
+    public void setAsyncRendering(boolean async, boolean placeholder) {
+        this.async = async;
+        this.placeholder = async && placeholder;
+        schedule();
+    }
+
+    /**
+     * Check whether asynchronous rendering mode is on or not.
+     *
+     * @return True/false.
+     */
+    public boolean isAsyncRendering() {
+        return async;
+    }
+
+    /**
+     * Set the streaming and compression modes for SVG images. See {@link PaintedImageResource#setStreaming(boolean)}
+     * and {@link PaintedImageResource#setCompressed(boolean)}. The image will be redrawn.
+     *
+     * @param streaming True to stream the SVG content directly to the response.
+     * @param compressed True to send the SVG content in gzip encoding.
+     */
+    public void setStreaming(boolean streaming, boolean compressed) {
+        this.streaming = streaming;
+        this.compressed = compressed;
+        schedule();
+    }
+
+    /**
+     * Set the parallel mode for painting large raster images. See {@link PaintedImageResource#setParallel(boolean)}.
+     * The image will be redrawn.
+     *
+     * @param parallel True to switch on the parallel mode.
+     */
+    public void setParallelRendering(boolean parallel) {
+        this.parallel = parallel;
+        schedule();
+    }
+
+    /**
+     * Check whether parallel rendering mode is on or not.
+     *
+     * @return True/false.
+     */
+    public boolean isParallelRendering() {
+        return parallel;
+    }
+
+    /**
+     * Set the cache key for this image. If set, the rendered image is cached in a shared cache (see
+     * {@link PaintedImageResource#setCacheKey(Object)}) so that identical images are rendered only once even if they
+     * are displayed in many sessions. The key must uniquely identify the content painted. The image will be redrawn.
+     *
+     * @param cacheKey Cache key (<code>null</code> to switch off caching).
+     */
+    public void setCacheKey(Object cacheKey) {
+        this.cacheKey = cacheKey;
+        schedule();
+    }
+
+    /**
+     * Get the cache key of this image.
+     *
+     * @return Cache key (could be <code>null</code>).
+     */
+    public Object getCacheKey() {
+        return cacheKey;
     }
 
     /**
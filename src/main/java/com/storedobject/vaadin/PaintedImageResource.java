@@ -1,7 +1,9 @@
 package com.storedobject.vaadin;
 
-import com.vaadin.flow.server.InputStreamFactory;
+import com.storedobject.vaadin.util.WorkerThreads;
 import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.server.StreamResourceWriter;
+import com.vaadin.flow.server.VaadinSession;
 import org.apache.batik.dom.GenericDOMImplementation;
 import org.apache.batik.svggen.SVGGraphics2D;
 import org.w3c.dom.DOMImplementation;
@@ -10,22 +12,46 @@ import org.w3c.dom.Document;
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
-import java.io.OutputStreamWriter;
+import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.util.Objects;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Create an image resource from an AWT image painted on a {@link Graphics2D}.
+ * <p>The image is rendered only once per resource and every request gets its own stream over the rendered bytes.
+ * If a "cache key" is set via {@link #setCacheKey(Object)}, the rendered bytes are kept in a bounded cache that is
+ * shared across all sessions, and other resources with the same cache key, image type and size will not re-render
+ * the image. (The cache key must uniquely identify the content painted by the painter). If more than one resource
+ * with the same cache key needs to be rendered at the same time, only one of them renders the image and the others
+ * wait for it. Failed renderings are not cached.</p>
+ * <p>The image can be rendered in the background (see {@link #renderInBackground()}) so that it is ready (or being
+ * rendered) by the time the browser requests it. Large raster images can be painted in parallel tiles
+ * (see {@link #setParallel(boolean)}).</p>
+ * <p>SVG images can be streamed directly to the response (see {@link #setStreaming(boolean)}) and can be
+ * compressed (see {@link #setCompressed(boolean)}).</p>
  *
  * @author Syam
  */
 public class PaintedImageResource extends StreamResource {
 
     private static long fileId = 0;
+    private static final RenderCache cache = new RenderCache();
+    private static final Map<CacheKey, CompletableFuture<byte[]>> rendering = new ConcurrentHashMap<>();
+    private static final ExecutorService renderers = WorkerThreads.executor("so-painter",
+            Runtime.getRuntime().availableProcessors());
+    // Separate pool for the tiles because the renderers wait for their tiles
+    private static final ExecutorService tilePainters = WorkerThreads.executor("so-tile-painter",
+            Runtime.getRuntime().availableProcessors());
+    private static final int TILE_PIXELS = 512 * 512;
+    private final ImageStream imageStream;
 
     /**
      * Create a 100x100 pixels SVG image resource.
@@ -107,7 +133,9 @@ public class PaintedImageResource extends StreamResource {
     }
 
     private PaintedImageResource(ImageStream imageStream, Consumer<Graphics2D> painter) {
-        super(createBaseFileName() + "." + imageStream.imageType.toString().toLowerCase(), imageStream);
+        super(createBaseFileName() + "." + imageStream.imageType.toString().toLowerCase(),
+                (StreamResourceWriter) imageStream);
+        this.imageStream = imageStream;
         setContentType(imageStream.imageType == PaintedImage.Type.SVG ? "image/svg+xml" : "image/" + imageStream.imageType.toString().toLowerCase());
         if(painter == null) {
             painter = this::paint;
@@ -123,6 +151,181 @@ public class PaintedImageResource extends StreamResource {
     public void paint(Graphics2D graphics) {
     }
 
+    /**
+     * Set the cache key for this image. The rendered image will be cached in a shared cache with this key (along
+     * with the image type and size). The key must uniquely identify the content painted by the painter and should
+     * have proper {@link Object#equals(Object)} and {@link Object#hashCode()} implementations.
+     *
+     * @param cacheKey Cache key (<code>null</code> to switch off caching).
+     */
+    public void setCacheKey(Object cacheKey) {
+        imageStream.cacheKey = cacheKey;
+    }
+
+    /**
+     * Get the cache key of this image.
+     *
+     * @return Cache key (could be <code>null</code>).
+     */
+    public Object getCacheKey() {
+        return imageStream.cacheKey;
+    }
+
+    /**
+     * Set the parallel mode for painting raster images. In parallel mode, large images are divided into horizontal
+     * tiles and the tiles are painted concurrently, each with a {@link Graphics2D} clipped to the tile. So, the painter
+     * will be invoked once for each tile (possibly from different threads) and it must be thread-safe and must paint
+     * the same content on every invocation. This has no effect for SVG images.
+     *
+     * @param parallel True to switch on the parallel mode.
+     */
+    public void setParallel(boolean parallel) {
+        imageStream.parallel = parallel;
+    }
+
+    /**
+     * Check whether the parallel mode is on or not. See {@link #setParallel(boolean)}.
+     *
+     * @return True/false.
+     */
+    public boolean isParallel() {
+        return imageStream.parallel;
+    }
+
+    /**
+     * Set the streaming mode for SVG images. In streaming mode, the SVG content is written directly to the response
+     * stream without buffering the generated content in memory. However, the image is painted again for every
+     * request and the mode is not effective if a cache key is set (see {@link #setCacheKey(Object)}) or if the
+     * image is rendered in the background (see {@link #renderInBackground()}). This has no effect for other image
+     * types.
+     *
+     * @param streaming True to switch on the streaming mode.
+     */
+    public void setStreaming(boolean streaming) {
+        imageStream.streaming = streaming;
+    }
+
+    /**
+     * Check whether the streaming mode is on or not. See {@link #setStreaming(boolean)}.
+     *
+     * @return True/false.
+     */
+    public boolean isStreaming() {
+        return imageStream.streaming;
+    }
+
+    /**
+     * Set the compression mode for SVG images. In compressed mode, the content is sent to the browser in gzip
+     * encoding. This has no effect for other image types (they are already compressed).
+     *
+     * @param compressed True to switch on the compression.
+     */
+    public void setCompressed(boolean compressed) {
+        compressed = compressed && imageStream.imageType == PaintedImage.Type.SVG;
+        imageStream.compressed = compressed;
+        setHeader("Content-Encoding", compressed ? "gzip" : "identity");
+    }
+
+    /**
+     * Check whether the compression mode is on or not. See {@link #setCompressed(boolean)}.
+     *
+     * @return True/false.
+     */
+    public boolean isCompressed() {
+        return imageStream.compressed;
+    }
+
+    /**
+     * Start rendering the image in the background (on a shared pool of worker threads). If the image is requested
+     * before the rendering is complete, the request will wait for the rendering to complete.
+     */
+    public void renderInBackground() {
+        imageStream.renderInBackground();
+    }
+
+    /**
+     * Run an action when the image is rendered. If the image is already rendered, the action will be run immediately.
+     * If the image is not yet rendered and rendering is not started in the background, rendering will be started in
+     * the background (see {@link #renderInBackground()}). The action will be run from the rendering thread, so it
+     * should not access the UI directly.
+     *
+     * @param action Action to run.
+     */
+    public void whenRendered(Runnable action) {
+        imageStream.renderInBackground().thenRun(action);
+    }
+
+    /**
+     * Run an action when the image is rendered or another action if the rendering fails. See
+     * {@link #whenRendered(Runnable)}. The actions will be run from the rendering thread, so they should not access the
+     * UI directly.
+     *
+     * @param action Action to run.
+     * @param failed Action to run if the rendering fails (receives the error).
+     */
+    public void whenRendered(Runnable action, Consumer<Throwable> failed) {
+        imageStream.renderInBackground().whenComplete((b, error) -> {
+            if(error == null) {
+                action.run();
+            } else {
+                failed.accept(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            }
+        });
+    }
+
+    /**
+     * Check whether the image is rendered or not.
+     *
+     * @return True if rendered.
+     */
+    public boolean isRendered() {
+        return imageStream.bytes != null;
+    }
+
+    /**
+     * Set the maximum size of the shared render cache.
+     *
+     * @param bytes Maximum number of bytes to keep in the cache (Default is 16MB).
+     */
+    public static void setRenderCacheSize(long bytes) {
+        cache.resize(bytes);
+    }
+
+    /**
+     * Get the number of cache hits of the shared render cache.
+     *
+     * @return Number of hits.
+     */
+    public static long getRenderCacheHits() {
+        return cache.hits.get();
+    }
+
+    /**
+     * Get the number of cache misses of the shared render cache.
+     *
+     * @return Number of misses.
+     */
+    public static long getRenderCacheMisses() {
+        return cache.misses.get();
+    }
+
+    /**
+     * Get the number of bytes currently held in the shared render cache.
+     *
+     * @return Number of bytes.
+     */
+    public static long getRenderCacheBytes() {
+        return cache.bytes();
+    }
+
+    /**
+     * Clear the shared render cache.
+     */
+    public static void clearRenderCache() {
+        cache.clear();
+    }
+
     /**
      * Create a base file name for the image.
      * @return Base file name (without extension).
@@ -137,13 +340,17 @@ public class PaintedImageResource extends StreamResource {
         }
     }
 
-    private static class ImageStream implements InputStreamFactory {
+    private static class ImageStream implements StreamResourceWriter {
 
         private final PaintedImage.Type imageType;
         private final int width;
         private final int height;
-        private ByteArrayInputStream bytestream = null;
+        private volatile byte[] bytes = null;
         private Consumer<Graphics2D> painter;
+        private Object cacheKey;
+        private boolean parallel = false;
+        private CompletableFuture<byte[]> future;
+        private boolean streaming = false, compressed = false;
 
         private ImageStream(PaintedImage.Type imageType, int width, int height) {
             this.imageType = imageType;
@@ -152,50 +359,219 @@ public class PaintedImageResource extends StreamResource {
         }
 
         @Override
-        public InputStream createInputStream() {
-            if(bytestream == null) {
-                BufferedImage bi = null;
-                Graphics2D graphics = null;
-                if(imageType == PaintedImage.Type.SVG) {
-                    DOMImplementation domImpl = GenericDOMImplementation.getDOMImplementation();
-                    Document document = domImpl.createDocument("http://www.w3.org/2000/svg", "svg", null);
-                    graphics = new SVGGraphics2D(document);
-                } else {
-                    if(width > 0 && height > 0) {
-                        bi = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
-                        graphics = bi.createGraphics();
-                    }
+        public void accept(OutputStream stream, VaadinSession session) throws IOException {
+            OutputStream out = compressed ? new GZIPOutputStream(stream, 8192) : stream;
+            if(streaming && imageType == PaintedImage.Type.SVG && cacheKey == null && bytes == null
+                    && future == null) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+                SVGGraphics2D graphics = paintSVG();
+                graphics.stream(writer);
+                writer.flush();
+                graphics.dispose();
+            } else {
+                try {
+                    out.write(bytes());
+                } catch(CompletionException | UncheckedIOException e) {
+                    Throwable cause = e.getCause() == null ? e : e.getCause();
+                    throw cause instanceof IOException io ? io : new IOException(cause);
                 }
-                if(width > 0 && height > 0) {
-                    graphics.setClip(0, 0, width, height);
-                    if(imageType != PaintedImage.Type.SVG) {
-                        graphics.setColor(Color.BLACK);
-                        graphics.setBackground(new Color(0xB4, 0xC0, 0xC5));
-                        graphics.clearRect(0, 0, width, height);
+            }
+            if(out instanceof GZIPOutputStream gzip) {
+                gzip.finish();
+            }
+            out.flush();
+        }
+
+        private byte[] bytes() {
+            byte[] b = bytes;
+            if(b != null) {
+                return b;
+            }
+            CompletableFuture<byte[]> f;
+            synchronized(this) {
+                f = future;
+            }
+            return f == null ? load() : f.join();
+        }
+
+        private synchronized CompletableFuture<byte[]> renderInBackground() {
+            if(future == null) {
+                byte[] b = bytes;
+                CompletableFuture<byte[]> f = b == null ? CompletableFuture.supplyAsync(this::load, renderers)
+                        : CompletableFuture.completedFuture(b);
+                future = f;
+                f.whenComplete((r, error) -> {
+                    if(error != null) { // Allow retrying
+                        synchronized(this) {
+                            if(future == f) {
+                                future = null;
+                            }
+                        }
                     }
+                });
+            }
+            return future;
+        }
+
+        private byte[] load() {
+            CacheKey key = cacheKey == null ? null : new CacheKey(cacheKey, imageType, width, height);
+            if(key == null) {
+                byte[] b = render();
+                bytes = b;
+                return b;
+            }
+            byte[] b = cache.get(key);
+            if(b != null) {
+                bytes = b;
+                return b;
+            }
+            CompletableFuture<byte[]> f = new CompletableFuture<>(), running = rendering.putIfAbsent(key, f);
+            if(running != null) { // Being rendered by another resource
+                b = running.join();
+                bytes = b;
+                return b;
+            }
+            try {
+                b = render();
+                if(b.length > 0) {
+                    cache.put(key, b);
                 }
-                if(graphics != null && painter != null) {
-                    painter.accept(graphics);
-                }
-                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                f.complete(b);
+            } catch(RuntimeException | Error e) {
+                f.completeExceptionally(e);
+                throw e;
+            } finally {
+                rendering.remove(key, f);
+            }
+            bytes = b;
+            return b;
+        }
+
+        private SVGGraphics2D paintSVG() {
+            DOMImplementation domImpl = GenericDOMImplementation.getDOMImplementation();
+            Document document = domImpl.createDocument("http://www.w3.org/2000/svg", "svg", null);
+            SVGGraphics2D graphics = new SVGGraphics2D(document);
+            if(width > 0 && height > 0) {
+                graphics.setClip(0, 0, width, height);
+            }
+            if(painter != null) {
+                painter.accept(graphics);
+            }
+            return graphics;
+        }
+
+        private byte[] render() {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            if(imageType == PaintedImage.Type.SVG) {
+                SVGGraphics2D graphics = paintSVG();
                 try {
-                    if(imageType == PaintedImage.Type.SVG) {
-                        OutputStreamWriter ow = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
-                        ((SVGGraphics2D)graphics).stream(ow);
-                        ow.close();
-                    } else {
-                        ImageIO.write(Objects.requireNonNull(bi), imageType.toString().toLowerCase(), outputStream);
-                    }
-                    outputStream.close();
-                    bytestream = new ByteArrayInputStream(outputStream.toByteArray());
+                    OutputStreamWriter ow = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+                    graphics.stream(ow);
+                    ow.close();
+                } catch(IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
                     graphics.dispose();
-                } catch(Exception e) {
-                    e.printStackTrace();
                 }
-            } else {
-                bytestream.reset();
+                return outputStream.toByteArray();
+            }
+            if(width <= 0 || height <= 0) {
+                return outputStream.toByteArray();
+            }
+            BufferedImage bi = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+            Graphics2D graphics = bi.createGraphics();
+            graphics.setClip(0, 0, width, height);
+            graphics.setColor(Color.BLACK);
+            graphics.setBackground(new Color(0xB4, 0xC0, 0xC5));
+            graphics.clearRect(0, 0, width, height);
+            if(painter != null) {
+                if(parallel && (long) width * height >= 2L * TILE_PIXELS) {
+                    paintTiles(bi);
+                } else {
+                    painter.accept(graphics);
+                }
+            }
+            try {
+                if(!ImageIO.write(bi, imageType.toString().toLowerCase(), outputStream)) {
+                    throw new IOException("No writer for image type " + imageType);
+                }
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                graphics.dispose();
+            }
+            return outputStream.toByteArray();
+        }
+
+        private void paintTiles(BufferedImage bi) {
+            int tileHeight = Math.max(1, TILE_PIXELS / width);
+            int tiles = (height + tileHeight - 1) / tileHeight;
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[tiles - 1];
+            for(int t = 1; t < tiles; t++) {
+                int y = t * tileHeight;
+                futures[t - 1] = CompletableFuture.runAsync(() -> paintTile(bi, y, tileHeight), tilePainters);
+            }
+            paintTile(bi, 0, tileHeight); // First tile in this thread itself
+            CompletableFuture.allOf(futures).join();
+        }
+
+        private void paintTile(BufferedImage bi, int y, int tileHeight) {
+            Graphics2D g = bi.createGraphics();
+            g.setClip(0, y, width, Math.min(tileHeight, height - y));
+            g.setColor(Color.BLACK);
+            g.setBackground(new Color(0xB4, 0xC0, 0xC5));
+            painter.accept(g);
+            g.dispose();
+        }
+    }
+
+    private record CacheKey(Object key, PaintedImage.Type type, int width, int height) {
+    }
+
+    private static class RenderCache {
+
+        private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong();
+        private long maxBytes = 16L << 20, bytes = 0;
+        private final Map<CacheKey, byte[]> map = new LinkedHashMap<>(64, 0.75f, true);
+
+        private synchronized byte[] get(CacheKey key) {
+            byte[] b = map.get(key);
+            (b == null ? misses : hits).incrementAndGet();
+            return b;
+        }
+
+        private synchronized void put(CacheKey key, byte[] value) {
+            if(value.length > maxBytes) {
+                return;
+            }
+            byte[] old = map.put(key, value);
+            if(old != null) {
+                bytes -= old.length;
+            }
+            bytes += value.length;
+            trim();
+        }
+
+        private synchronized void resize(long maxBytes) {
+            this.maxBytes = Math.max(maxBytes, 0);
+            trim();
+        }
+
+        private synchronized long bytes() {
+            return bytes;
+        }
+
+        private synchronized void clear() {
+            map.clear();
+            bytes = 0;
+        }
+
+        private void trim() {
+            var iterator = map.values().iterator();
+            while(bytes > maxBytes && iterator.hasNext()) {
+                bytes -= iterator.next().length;
+                iterator.remove();
             }
-            return bytestream;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,352 @@
+package com.storedobject.vaadin;
+
+import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.server.StreamResourceWriter;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinSession;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link StreamResource} that honours HTTP "Range" requests and conditional requests. The content is served from
+ * a seekable {@link Source} (a file, a byte array etc.) and only the requested part of it is sent to the browser.
+ * This makes seeking in large audio/video files (see {@link Media}) and viewing large PDF documents
+ * (see {@link PDFViewer}) efficient. "ETag" and "Last-Modified" headers are sent so that the browser can cache the
+ * content and revalidate it ("304 Not Modified" is sent if the content is not changed).
+ * <p>Only single ranges are supported. If multiple ranges are requested, the whole content is sent.</p>
+ *
+ * @author Syam
+ */
+public class RangeStreamResource extends StreamResource {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final Source source;
+
+    /**
+     * Create a resource from a file.
+     *
+     * @param file File.
+     */
+    public RangeStreamResource(Path file) {
+        this(file.getFileName().toString(), new FileSource(file));
+        try {
+            String type = Files.probeContentType(file);
+            if(type != null) {
+                setContentType(type);
+            }
+        } catch(IOException ignored) {
+        }
+    }
+
+    /**
+     * Create a resource from a byte array.
+     *
+     * @param name Name of the resource (used for determining the content type).
+     * @param content Content.
+     */
+    public RangeStreamResource(String name, byte[] content) {
+        this(name, new BytesSource(content));
+    }
+
+    /**
+     * Create a resource from a {@link Source}.
+     *
+     * @param name Name of the resource (used for determining the content type).
+     * @param source Source of the content.
+     */
+    public RangeStreamResource(String name, Source source) {
+        super(name, (StreamResourceWriter) new Writer(source));
+        this.source = source;
+        setHeader("Accept-Ranges", "bytes");
+    }
+
+    /**
+     * Get the source of the content.
+     *
+     * @return Source.
+     */
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * A seekable source of content.
+     */
+    public interface Source {
+
+        /**
+         * Get the size of the content.
+         *
+         * @return Size in bytes.
+         * @throws IOException If any I/O error occurs.
+         */
+        long size() throws IOException;
+
+        /**
+         * Get the last modified time of the content.
+         *
+         * @return Time in milliseconds since epoch (0 if not known).
+         */
+        default long lastModified() {
+            return 0;
+        }
+
+        /**
+         * Get the entity tag of the content. The tag must change whenever the content changes.
+         *
+         * @return Entity tag (without quotes) or <code>null</code> if not available.
+         */
+        default String tag() {
+            return null;
+        }
+
+        /**
+         * Write part of the content to the output.
+         *
+         * @param position Position from which content should be written.
+         * @param count Number of bytes to write.
+         * @param out Output.
+         * @throws IOException If any I/O error occurs.
+         */
+        void transfer(long position, long count, OutputStream out) throws IOException;
+    }
+
+    /**
+     * A {@link Source} backed by a file. Parts are read via positional reads of a {@link FileChannel}.
+     */
+    public static class FileSource implements Source {
+
+        private final Path file;
+
+        /**
+         * Constructor.
+         *
+         * @param file File.
+         */
+        public FileSource(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return Files.size(file);
+        }
+
+        @Override
+        public long lastModified() {
+            try {
+                return Files.getLastModifiedTime(file).toMillis();
+            } catch(IOException e) {
+                return 0;
+            }
+        }
+
+        @Override
+        public String tag() {
+            try {
+                return Long.toHexString(size()) + "-" + Long.toHexString(lastModified());
+            } catch(IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void transfer(long position, long count, OutputStream out) throws IOException {
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                while(count > 0) {
+                    long n = channel.transferTo(position, count, target);
+                    if(n <= 0) {
+                        break;
+                    }
+                    position += n;
+                    count -= n;
+                }
+            }
+        }
+    }
+
+    /**
+     * A {@link Source} backed by a byte array.
+     */
+    public static class BytesSource implements Source {
+
+        private final byte[] content;
+        private final long created = System.currentTimeMillis();
+        private String tag;
+
+        /**
+         * Constructor.
+         *
+         * @param content Content.
+         */
+        public BytesSource(byte[] content) {
+            this.content = content;
+        }
+
+        @Override
+        public long size() {
+            return content.length;
+        }
+
+        @Override
+        public long lastModified() {
+            return created;
+        }
+
+        @Override
+        public synchronized String tag() {
+            if(tag == null) {
+                CRC32 crc = new CRC32();
+                crc.update(content);
+                tag = Long.toHexString(content.length) + "-" + Long.toHexString(crc.getValue());
+            }
+            return tag;
+        }
+
+        @Override
+        public void transfer(long position, long count, OutputStream out) throws IOException {
+            out.write(content, (int) position, (int) count);
+        }
+    }
+
+    private record Writer(Source source) implements StreamResourceWriter {
+
+        @Override
+        public void accept(OutputStream stream, VaadinSession session) throws IOException {
+            VaadinRequest request = VaadinRequest.getCurrent();
+            VaadinResponse response = VaadinResponse.getCurrent();
+            long size = source.size();
+            if(request == null || response == null) {
+                source.transfer(0, size, stream);
+                return;
+            }
+            String tag = source.tag();
+            String etag = tag == null ? null : ("\"" + tag + "\"");
+            long modified = (source.lastModified() / 1000L) * 1000L;
+            if(etag != null) {
+                response.setHeader("ETag", etag);
+            }
+            if(modified > 0) {
+                response.setHeader("Last-Modified", httpDate(modified));
+            }
+            if(notModified(request, etag, modified)) {
+                response.setStatus(304);
+                return;
+            }
+            long start = 0, end = size - 1;
+            String range = request.getHeader("Range");
+            if(range != null && ifRange(request, etag, modified)) {
+                long[] r = parseRange(range, size);
+                if(r == null) {
+                    response.setStatus(416);
+                    response.setHeader("Content-Range", "bytes */" + size);
+                    return;
+                }
+                if(r.length == 2) {
+                    start = r[0];
+                    end = r[1];
+                    response.setStatus(206);
+                    response.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + size);
+                }
+            }
+            long count = end - start + 1;
+            response.setContentLengthLong(Math.max(0, count));
+            if(count > 0 && !"HEAD".equalsIgnoreCase(request.getMethod())) {
+                OutputStream out = new BufferedOutputStream(stream, BUFFER_SIZE);
+                source.transfer(start, count, out);
+                out.flush();
+            }
+        }
+
+        private static boolean notModified(VaadinRequest request, String etag, long modified) {
+            String inm = request.getHeader("If-None-Match");
+            if(inm != null) {
+                return etag != null && (inm.trim().equals("*") || matches(inm, etag));
+            }
+            long ims = request.getDateHeader("If-Modified-Since");
+            return ims > 0 && modified > 0 && modified <= ims;
+        }
+
+        private static boolean ifRange(VaadinRequest request, String etag, long modified) {
+            String ir = request.getHeader("If-Range");
+            if(ir == null) {
+                return true;
+            }
+            ir = ir.trim();
+            if(ir.startsWith("\"") || ir.startsWith("W/")) {
+                return ir.equals(etag);
+            }
+            long d = request.getDateHeader("If-Range");
+            return d > 0 && modified > 0 && modified <= d;
+        }
+
+        private static boolean matches(String header, String etag) {
+            for(String t: header.split(",")) {
+                t = t.trim();
+                if(t.startsWith("W/")) {
+                    t = t.substring(2);
+                }
+                if(t.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /*
+         * Returns {start, end} for a satisfiable single range, an empty array if the whole content should be sent
+         * and null if the range is not satisfiable.
+         */
+        private static long[] parseRange(String range, long size) {
+            range = range.trim();
+            if(!range.startsWith("bytes=") || range.indexOf(',') >= 0) {
+                return new long[0];
+            }
+            range = range.substring(6).trim();
+            int p = range.indexOf('-');
+            if(p < 0) {
+                return new long[0];
+            }
+            try {
+                long start, end;
+                if(p == 0) { // Suffix
+                    long n = Long.parseLong(range.substring(1).trim());
+                    if(n <= 0) {
+                        return null;
+                    }
+                    start = Math.max(0, size - n);
+                    end = size - 1;
+                } else {
+                    start = Long.parseLong(range.substring(0, p).trim());
+                    String e = range.substring(p + 1).trim();
+                    end = e.isEmpty() ? size - 1 : Math.min(Long.parseLong(e), size - 1);
+                }
+                if(start >= size || start > end) {
+                    return null;
+                }
+                return new long[] { start, end };
+            } catch(NumberFormatException e) {
+                return new long[0];
+            }
+        }
+
+        private static String httpDate(long time) {
+            SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("GMT"));
+            return format.format(new Date(time));
+        }
+    }
+}
@@ -6,7 +6,8 @@ import com.vaadin.flow.server.StreamResourceRegistry;
 import com.vaadin.flow.server.VaadinSession;
 
 /**
- * A class to support resource handling.
+ * A class to support resource handling. Resources that are {@link ReferenceCounted} (for example, resources created
+ * from a {@link ContentStore} or a {@link MappedFileResource}) hold a reference while they are registered.
  *
  * @author Syam
  */
@@ -46,6 +47,37 @@ public class ResourceSupport {
         unregister();
         this.streamResource = streamResource;
         streamRegistration = VaadinSession.getCurrent().getResourceRegistry().registerResource(streamResource);
+        if(streamResource instanceof ReferenceCounted rc) {
+            rc.acquire();
+        }
+    }
+
+    /**
+     * Register a resource from the default {@link ContentStore} by its hash. The resource is set on the component.
+     *
+     * @param contentHash Hash of the content in the store.
+     * @param name Name of the resource (used for determining the content type).
+     * @return True if the content was found in the store and set on the component.
+     */
+    public boolean register(String contentHash, String name) {
+        return register(ContentStore.getDefault(), contentHash, name);
+    }
+
+    /**
+     * Register a resource from a {@link ContentStore} by its hash. The resource is set on the component.
+     *
+     * @param store Content store.
+     * @param contentHash Hash of the content in the store.
+     * @param name Name of the resource (used for determining the content type).
+     * @return True if the content was found in the store and set on the component.
+     */
+    public boolean register(ContentStore store, String contentHash, String name) {
+        ContentStore.SharedResource resource = store.createResource(contentHash, name);
+        if(resource == null) {
+            return false;
+        }
+        component.setSource(resource);
+        return true;
     }
 
     /**
@@ -64,6 +96,9 @@ public class ResourceSupport {
         if (streamRegistration != null) {
             streamRegistration.unregister();
             streamRegistration = null;
+            if(streamResource instanceof ReferenceCounted rc) {
+                rc.release();
+            }
         }
     }
 
@@ -75,4 +110,22 @@ public class ResourceSupport {
     public String getURI() {
         return streamResource == null ? null : StreamResourceRegistry.getURI(streamResource).toASCIIString();
     }
-}
\ No newline at end of file
+
+    /**
+     * Interface to be implemented by resources that hold shared content that should be released when no more
+     * components are using it. {@link ResourceSupport} acquires a reference when the resource is registered and
+     * releases it when the resource is unregistered.
+     */
+    public interface ReferenceCounted {
+
+        /**
+         * Acquire a reference.
+         */
+        void acquire();
+
+        /**
+         * Release a reference acquired earlier.
+         */
+        void release();
+    }
+}
@@ -15,4 +15,34 @@ public interface ResourcedComponent {
      * @param streamResource Resource to set
      */
     void setSource(AbstractStreamResource streamResource);
-}
\ No newline at end of file
+
+    /**
+     * Set the content with the given hash from the default {@link ContentStore} as the resource. The content is
+     * shared with all the other components showing the same content.
+     *
+     * @param contentHash Hash of the content in the store.
+     * @param name Name of the resource (used for determining the content type).
+     * @return True if the content was found in the store and set. (The current resource is not changed otherwise).
+     */
+    default boolean setContentSource(String contentHash, String name) {
+        return setContentSource(ContentStore.getDefault(), contentHash, name);
+    }
+
+    /**
+     * Set the content with the given hash from a {@link ContentStore} as the resource. The content is shared with all
+     * the other components showing the same content.
+     *
+     * @param store Content store.
+     * @param contentHash Hash of the content in the store.
+     * @param name Name of the resource (used for determining the content type).
+     * @return True if the content was found in the store and set. (The current resource is not changed otherwise).
+     */
+    default boolean setContentSource(ContentStore store, String contentHash, String name) {
+        ContentStore.SharedResource resource = store.createResource(contentHash, name);
+        if(resource == null) {
+            return false;
+        }
+        setSource(resource);
+        return true;
+    }
+}
@@ -0,0 +1,273 @@
+package com.storedobject.vaadin;
+
+import com.storedobject.vaadin.util.WorkerThreads;
+import com.vaadin.flow.server.StreamResource;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * A "data receiver" for the pictures taken by a {@link VideoCapture} (see
+ * {@link VideoCapture#savePicture(MediaCapture.DataReceiver)}) that produces a set of derived images of
+ * different widths. The picture received is decoded only once on a worker thread and the derived images are
+ * scaled down step by step from the largest to the smallest. Each derived image is available as a
+ * {@link StreamResource} that serves the already encoded bytes (see {@link Snapshot#getResource(int)}) and can be
+ * used in an {@link Image} or {@link ImageView}.
+ * <p>Example:</p>
+ * <pre>
+ * SnapshotPipeline pipeline = new SnapshotPipeline(snapshot -&gt; thumbnail.setSource(snapshot.getResource(120)),
+ *         1280, 640, 120);
+ * videoCapture.savePicture(pipeline);
+ * </pre>
+ *
+ * @author Syam
+ */
+public class SnapshotPipeline implements MediaCapture.DataReceiver {
+
+    private static final ExecutorService workers = WorkerThreads.executor("so-snapshot",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    private static long fileId = 0;
+    private final int[] widths;
+    private final Consumer<Snapshot> consumer;
+    private final Application application;
+    private String format = "jpeg";
+    private float quality = 0.85f;
+    private ByteArrayOutputStream data;
+    private String mimeType;
+
+    /**
+     * Constructor.
+     *
+     * @param consumer Consumer that receives the {@link Snapshot} when all the derived images are ready. It is
+     *                 invoked while holding the lock of the application's session.
+     * @param widths Widths (in pixels) of the derived images to produce. (The original image is always
+     *               available with width 0). Images are never scaled up, so if the picture is narrower than a width,
+     *               the derived image is available only under the width of the picture (see
+     *               {@link Snapshot#getWidths()}).
+     */
+    public SnapshotPipeline(Consumer<Snapshot> consumer, int... widths) {
+        this.consumer = consumer;
+        this.application = Application.get();
+        this.widths = Arrays.stream(widths).filter(w -> w > 0).distinct().sorted().toArray();
+    }
+
+    /**
+     * Set the format of the derived images.
+     *
+     * @param format Format ("jpeg" or "png"). Default is "jpeg".
+     * @param quality Quality (0 to 1) used for "jpeg". Default is 0.85.
+     */
+    public void setFormat(String format, double quality) {
+        this.format = "png".equalsIgnoreCase(format) ? "png" : "jpeg";
+        this.quality = (float) Math.min(1, Math.max(0.05, quality));
+    }
+
+    @Override
+    public OutputStream getOutputStream(String mimeType) {
+        this.mimeType = mimeType;
+        data = new ByteArrayOutputStream(1 << 18);
+        return data;
+    }
+
+    @Override
+    public void finished() {
+        byte[] original = data == null ? null : data.toByteArray();
+        String mime = mimeType;
+        data = null;
+        if(original == null) {
+            return;
+        }
+        workers.execute(() -> {
+            Snapshot snapshot = new Snapshot(original, mime);
+            try {
+                derive(snapshot);
+            } catch(Throwable e) {
+                snapshot.error = e;
+            }
+            if(consumer == null) {
+                return;
+            }
+            if(application == null) {
+                consumer.accept(snapshot);
+            } else {
+                application.access(() -> consumer.accept(snapshot));
+            }
+        });
+    }
+
+    @Override
+    public void aborted() {
+        data = null;
+    }
+
+    private void derive(Snapshot snapshot) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(snapshot.original));
+        if(image == null) {
+            throw new IOException("Unable to decode image (" + snapshot.mimeType + ")");
+        }
+        snapshot.width = image.getWidth();
+        snapshot.height = image.getHeight();
+        for(int i = widths.length - 1; i >= 0; i--) {
+            int w = widths[i];
+            if(w < image.getWidth()) {
+                image = scale(image, w);
+            }
+            if(!snapshot.derived.containsKey(image.getWidth())) { // Not scaled up, so stored under its real width
+                snapshot.derived.put(image.getWidth(), encode(image));
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage image, int width) {
+        int height = Math.max(1, (int) Math.round((double) image.getHeight() * width / image.getWidth()));
+        boolean png = "png".equals(format);
+        BufferedImage scaled = new BufferedImage(width, height,
+                png ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return scaled;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if("png".equals(format)) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+        if(image.getColorModel().hasAlpha()) {
+            BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = rgb.createGraphics();
+            g.drawImage(image, 0, 0, Color.WHITE, null);
+            g.dispose();
+            image = rgb;
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try(ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static synchronized String fileName(String ext) {
+        return "snapshot" + (++fileId) + "." + ext;
+    }
+
+    /**
+     * The result of processing a picture by the {@link SnapshotPipeline}.
+     */
+    public final class Snapshot {
+
+        private final byte[] original;
+        private final String mimeType;
+        private final String imageFormat = format;
+        private final Map<Integer, byte[]> derived = new TreeMap<>();
+        private final Map<Integer, StreamResource> resources = new HashMap<>();
+        private int width, height;
+        private Throwable error;
+
+        private Snapshot(byte[] original, String mimeType) {
+            this.original = original;
+            this.mimeType = mimeType == null || mimeType.isEmpty() ? "image/jpeg" : mimeType;
+        }
+
+        /**
+         * Get the width of the original picture.
+         *
+         * @return Width in pixels (0 if the picture could not be decoded).
+         */
+        public int getWidth() {
+            return width;
+        }
+
+        /**
+         * Get the height of the original picture.
+         *
+         * @return Height in pixels (0 if the picture could not be decoded).
+         */
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * Get the widths of the derived images available.
+         *
+         * @return Widths (in ascending order).
+         */
+        public List<Integer> getWidths() {
+            return new ArrayList<>(derived.keySet());
+        }
+
+        /**
+         * Get the error raised while processing the picture.
+         *
+         * @return Error if any, otherwise <code>null</code>.
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        /**
+         * Get the original picture as received.
+         *
+         * @return Content of the picture.
+         */
+        public byte[] getOriginal() {
+            return original;
+        }
+
+        /**
+         * Get a derived image.
+         *
+         * @param width Width of the image (0 for the original picture).
+         * @return Content of the image or <code>null</code> if not available.
+         */
+        public byte[] getImage(int width) {
+            return width == 0 ? original : derived.get(width);
+        }
+
+        /**
+         * Get a derived image as a {@link StreamResource}. The same resource is returned for the same width and
+         * every request to it gets its own stream over the already encoded content.
+         *
+         * @param width Width of the image (0 for the original picture).
+         * @return Resource or <code>null</code> if not available.
+         */
+        public synchronized StreamResource getResource(int width) {
+            byte[] bytes = getImage(width);
+            if(bytes == null) {
+                return null;
+            }
+            return resources.computeIfAbsent(width, w -> {
+                boolean orig = w == 0;
+                String ext = orig ? (mimeType.contains("png") ? "png" : "jpg")
+                        : ("png".equals(imageFormat) ? "png" : "jpg");
+                StreamResource resource = new StreamResource(fileName(ext), () -> new ByteArrayInputStream(bytes));
+                resource.setContentType(orig ? mimeType : ("image/" + imageFormat));
+                resource.setCacheTime(3600000L);
+                return resource;
+            });
+        }
+    }
+}
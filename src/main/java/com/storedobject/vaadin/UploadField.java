@@ -1,17 +1,39 @@
 package com.storedobject.vaadin;
 
 import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.dependency.CssImport;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.upload.Upload;
+import com.storedobject.vaadin.util.ChunkStore;
+import com.storedobject.vaadin.util.WorkerThreads;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.server.streams.*;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * A class to process uploaded content. The content will be available to the "processor" as an {@link InputStream}.
@@ -21,15 +43,35 @@ import java.util.function.Consumer;
  * <p>This component is a {@link com.vaadin.flow.component.HasValue} and the value returned is the number of files
  * successfully uploaded.</p>
  *
- * <p>The default maximum file size is set to 10,000,000 bytes, but it can be changed via the
- * {@link Upload#setMaxFileSize(int)} method and the {@link Upload} component can be obtained via the
- * {@link #getUploadComponent()} method.</p>
+ * <p>The content can also be processed as a {@link ReadableByteChannel} by setting a "channel processor"
+ * (see {@link #setChannelProcessor(BiConsumer)}). If "spooling" is switched on (see {@link #setSpooling(boolean)}),
+ * the content is first written to a temporary file in large chunks and the processor gets a stream/channel over
+ * that file.</p>
+ *
+ * <p>When many files are uploaded, they can be processed in parallel (see {@link #setParallelProcessing(int)}).
+ * In this mode, each file is spooled to a temporary file and handed over to a bounded pool of worker threads.
+ * If the workers can not keep up, further uploads are held back until a slot is free. Results of the processing
+ * are applied to the UI in batches.</p>
+ *
+ * <p>A SHA-256 digest of the content can be computed while it is being received so that content that was already
+ * seen can be skipped (see {@link #setDuplicateChecker(Predicate)}). Content received in chunks via a
+ * {@link ChunkStore} (for example, resumable uploads from a custom client) can be fed to the same processing logic
+ * via {@link #process(ChunkStore, String, String, String)}. An HTTP endpoint for such resumable uploads can be
+ * switched on via {@link #setResumable(ChunkStore)}.</p>
+ *
+ * <p>The default maximum file size is set to 10,000,000 bytes (see {@link #setDefaultMaxFileSize(long)}), but it can
+ * be changed via the {@link #setMaxFileSize(long)} method (a limit set directly on the {@link Upload} component is
+ * also honoured on the server). The {@link Upload} component can be obtained via the
+ * {@link #getUploadComponent()} method for other customizations.</p>
  *
  * @author Syam
  */
 @CssImport(value = "./so/upload/styles.css", themeFor = "vaadin-upload-file")
 public class UploadField extends CustomField<Integer> {
 
+    private static final int BUFFER_SIZE = 1 << 18;
+    private static final long MAX_DRAIN = 1L << 20;
+    private static long defaultMaxFileSize = 10000000L;
     private final Upload upload;
     private final Handler handler = new Handler();
     private int fileCount = 0, maxFileCount = Integer.MAX_VALUE;
@@ -39,6 +81,19 @@ public class UploadField extends CustomField<Integer> {
     private Application application;
     private UI ui;
     private Consumer<Throwable> processErrorConsumer;
+    private BiConsumer<ReadableByteChannel, String> channelProcessor;
+    private volatile long maxFileSize;
+    private boolean spooling = false;
+    private int parallel = 0;
+    private ExecutorService workers;
+    private volatile Semaphore slots;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final List<Result> results = new ArrayList<>();
+    private final ThreadLocal<String> workerFileName = new ThreadLocal<>();
+    private Consumer<List<Result>> resultConsumer;
+    private Predicate<String> duplicateChecker;
+    private String contentHash;
+    private final ThreadLocal<String> workerHash = new ThreadLocal<>();
 
     /**
      * Constructor.
@@ -78,7 +133,7 @@ public class UploadField extends CustomField<Integer> {
             b.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
         }
         upload.setMaxFiles(maxFileCount);
-        upload.setMaxFileSize(10000000);
+        setMaxFileSize(defaultMaxFileSize);
         upload.addFileRejectedListener(e -> inform("File Rejected - " + e.getErrorMessage()));
         upload.addAllFinishedListener(e -> inform(null));
         add(upload, description);
@@ -121,6 +176,29 @@ public class UploadField extends CustomField<Integer> {
         application = Application.get(getU());
     }
 
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        shutdownWorkers();
+        super.onDetach(detachEvent);
+    }
+
+    private synchronized void shutdownWorkers() {
+        if(workers != null) {
+            workers.shutdown(); // Files already queued are still processed
+            workers = null;
+        }
+    }
+
+    private synchronized ExecutorService workers() {
+        if(workers == null) {
+            if(parallel <= 0) {
+                throw new RejectedExecutionException("Parallel processing is switched off");
+            }
+            workers = WorkerThreads.executor("so-upload", parallel);
+        }
+        return workers;
+    }
+
     private UI getU() {
         if(ui == null) {
             ui = getUI().orElse(null);
@@ -173,14 +251,21 @@ public class UploadField extends CustomField<Integer> {
     }
 
     private void handleUpload(UploadEvent event) {
+        Semaphore slots = this.slots; // Parallel mode may be switched off in the meantime
+        if(slots != null) {
+            handleParallel(event, slots);
+            return;
+        }
         if (application != null) {
             application.startPolling(this);
         }
         try {
             this.fileName = event.getFileName();
-            InputStream in = event.getInputStream();
+            InputStream in = new LimitedInputStream(event.getInputStream(), getMaxFileSize());
+            boolean processed = false;
             try {
-                process(in, event.getContentType());
+                process(in, event.getContentType(), spooling || duplicateChecker != null);
+                processed = true;
                 ++fileCount;
                 inform(null);
                 handler.responseHandled(true, event.getResponse());
@@ -189,7 +274,6 @@ public class UploadField extends CustomField<Integer> {
                     processErrorConsumer.accept(processingError);
                     ui.access(() -> setReadOnly(true));
                 } else {
-                    processingError.printStackTrace();
                     if (application != null) {
                         application.log(processingError);
                     } else {
@@ -203,11 +287,7 @@ public class UploadField extends CustomField<Integer> {
                 }
                 handler.responseHandled(false, event.getResponse());
             }
-            try {
-                //noinspection StatementWithEmptyBody
-                while (in.read() != -1) ;
-            } catch (IOException ignore) {
-            }
+            drain(in, processed);
             if (fileCount == maxFileCount) {
                 ui.access(() -> {
                     new Box(description);
@@ -225,6 +305,179 @@ public class UploadField extends CustomField<Integer> {
         }
     }
 
+    private void process(InputStream in, String mimeType, boolean spool) throws IOException {
+        if(!spool) {
+            if(channelProcessor != null) {
+                process(Channels.newChannel(in), mimeType);
+            } else {
+                process(in, mimeType);
+            }
+            return;
+        }
+        MessageDigest digest = duplicateChecker == null ? null : ChunkStore.sha256();
+        Path file = spool(in, digest);
+        try {
+            contentHash = digest == null ? null : ChunkStore.hex(digest.digest());
+            if(!isDuplicate(contentHash)) {
+                processFile(file, mimeType);
+            }
+        } finally {
+            contentHash = null;
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static Path spool(InputStream in, MessageDigest digest) throws IOException {
+        Path file = Files.createTempFile("so-upload", null);
+        try(FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            ByteBuffer bb = ByteBuffer.wrap(buffer);
+            int n;
+            while((n = in.read(buffer)) != -1) {
+                if(digest != null) {
+                    digest.update(buffer, 0, n);
+                }
+                bb.clear().limit(n);
+                while(bb.hasRemaining()) {
+                    out.write(bb);
+                }
+            }
+        } catch(IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    private void processFile(Path file, String mimeType) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if(channelProcessor != null) {
+                process(channel, mimeType);
+            } else {
+                process(Channels.newInputStream(channel), mimeType);
+            }
+        }
+    }
+
+    private void handleParallel(UploadEvent event, Semaphore slots) {
+        String name = event.getFileName(), mimeType = event.getContentType();
+        try {
+            slots.acquire(); // Back-pressure: the client waits till a slot is available
+        } catch(InterruptedException e) {
+            handler.responseHandled(false, event.getResponse());
+            return;
+        }
+        if(inFlight.getAndIncrement() == 0 && application != null) {
+            application.startPolling(this);
+        }
+        Path file;
+        String hash;
+        try(InputStream in = new LimitedInputStream(event.getInputStream(), getMaxFileSize())) {
+            MessageDigest digest = duplicateChecker == null ? null : ChunkStore.sha256();
+            file = spool(in, digest);
+            hash = digest == null ? null : ChunkStore.hex(digest.digest());
+        } catch(Throwable error) {
+            handler.responseHandled(false, event.getResponse());
+            parallelDone(slots, name, error);
+            return;
+        }
+        handler.responseHandled(true, event.getResponse());
+        try {
+            workers().execute(() -> {
+                Throwable error = null;
+                workerFileName.set(name);
+                workerHash.set(hash == null ? "" : hash);
+                try {
+                    if(!isDuplicate(hash)) {
+                        processFile(file, mimeType);
+                    }
+                } catch(Throwable e) {
+                    error = e;
+                } finally {
+                    workerFileName.remove();
+                    workerHash.remove();
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch(IOException ignore) {
+                    }
+                }
+                parallelDone(slots, name, error);
+            });
+        } catch(RejectedExecutionException e) { // Shut down in the meantime
+            try {
+                Files.deleteIfExists(file);
+            } catch(IOException ignore) {
+            }
+            parallelDone(slots, name, e);
+        }
+    }
+
+    private void parallelDone(Semaphore slots, String name, Throwable error) {
+        slots.release();
+        boolean schedule;
+        synchronized(results) {
+            schedule = results.isEmpty();
+            results.add(new Result(name, error));
+        }
+        if(inFlight.decrementAndGet() == 0 && application != null) {
+            application.stopPolling(this);
+        }
+        if(schedule && getU() != null) {
+            ui.access(this::applyResults);
+        }
+    }
+
+    private void applyResults() {
+        List<Result> list;
+        synchronized(results) {
+            list = new ArrayList<>(results);
+            results.clear();
+        }
+        if(list.isEmpty()) {
+            return;
+        }
+        int errors = 0;
+        for(Result r: list) {
+            if(r.error == null) {
+                ++fileCount;
+                continue;
+            }
+            ++errors;
+            if(processErrorConsumer != null) {
+                processErrorConsumer.accept(r.error);
+            } else if(application != null) {
+                application.log("Error processing " + r.fileName, r.error);
+            }
+        }
+        if(errors > 0 && processErrorConsumer == null) {
+            add(new StyledText("<span style=\"color:red\">Processing error! (" + errors + " file"
+                    + (errors == 1 ? "" : "s") + ")</span>"));
+        }
+        inf(null);
+        if(resultConsumer != null) {
+            resultConsumer.accept(list);
+        }
+    }
+
+    /**
+     * Drain the leftover content (if any) that the processor has not read. If the processing failed, or if the
+     * leftover content is too large, draining is abandoned.
+     */
+    private static void drain(InputStream in, boolean processed) {
+        if(!processed) {
+            return;
+        }
+        byte[] buffer = new byte[8192];
+        long drained = 0;
+        int n;
+        try {
+            while(drained < MAX_DRAIN && (n = in.read(buffer)) != -1) {
+                drained += n;
+            }
+        } catch (IOException ignore) {
+        }
+    }
+
     /**
      * This is where the real processing happens. This method is invoked to process the uploaded content, and by default,
      * it asks the "processor" to process it. However, this can be overridden.
@@ -237,12 +490,305 @@ public class UploadField extends CustomField<Integer> {
         }
     }
 
+    /**
+     * This is where the real processing happens when the content is processed as a channel. This method is invoked
+     * if a "channel processor" is set (see {@link #setChannelProcessor(BiConsumer)}) and by default, it asks the
+     * "channel processor" to process it. If no channel processor is set, {@link #process(InputStream, String)}
+     * is invoked with a stream over the channel. However, this can be overridden.
+     *
+     * @param data Uploaded content
+     * @param mimeType Mime type of the content
+     */
+    public void process(ReadableByteChannel data, String mimeType) {
+        if(channelProcessor != null) {
+            channelProcessor.accept(data, mimeType);
+        } else {
+            process(Channels.newInputStream(data), mimeType);
+        }
+    }
+
+    /**
+     * Process the content of an upload received in chunks via a {@link ChunkStore}. The upload is completed, checked
+     * for duplicate content (see {@link #setDuplicateChecker(Predicate)}), processed (unless it is a duplicate) and
+     * then discarded from the store. The chunks are read one after the other without re-assembling them.
+     * <p>Note: This does not update the value of this field. It may be invoked from any thread.</p>
+     *
+     * @param store Chunk store.
+     * @param uploadId Upload id.
+     * @param mimeType Mime type of the content.
+     * @param fileName Name of the file.
+     * @return True if the content was processed, false if it was skipped as a duplicate.
+     * @throws IOException If the upload is not known or any I/O error occurs.
+     */
+    public boolean process(ChunkStore store, String uploadId, String mimeType, String fileName) throws IOException {
+        String hash = store.complete(uploadId);
+        workerFileName.set(fileName);
+        workerHash.set(hash);
+        try {
+            if(isDuplicate(hash)) {
+                return false;
+            }
+            try(ReadableByteChannel channel = store.open(uploadId)) {
+                process(channel, mimeType);
+            }
+            return true;
+        } finally {
+            workerFileName.remove();
+            workerHash.remove();
+            store.discard(uploadId);
+        }
+    }
+
+    /**
+     * Switch on an HTTP endpoint for resumable uploads. The URL of the endpoint is available to the client as the
+     * "resume-target" attribute of this field's element. The content is received in chunks via the given
+     * {@link ChunkStore} and processed via {@link #process(ChunkStore, String, String, String)} once the last chunk
+     * is received (the value of this field is updated as in the case of normal uploads).
+     * <p>Protocol (all requests are "POST" requests to the endpoint and the information is passed via headers):</p>
+     * <ul>
+     * <li>No "X-Upload-Id" - A new upload is started and its id is returned in the "X-Upload-Id" response header.</li>
+     * <li>"X-Upload-Id" without "X-Upload-Offset" - The number of bytes already received is returned in the
+     * "X-Upload-Received" response header (an interrupted upload should be resumed from there).</li>
+     * <li>"X-Upload-Id" with "X-Upload-Offset" - The body of the request is appended as the next chunk. If the offset
+     * is not the same as the number of bytes already received, status 409 is returned (with "X-Upload-Received").
+     * If "X-Upload-Complete" is "true", the upload is completed and processed. Name and type of the file are taken
+     * from the "X-Filename" and "Content-Type" headers.</li>
+     * </ul>
+     *
+     * @param store Chunk store to use (<code>null</code> to switch off the endpoint).
+     */
+    public void setResumable(ChunkStore store) {
+        if(store == null) {
+            getElement().removeAttribute("resume-target");
+        } else {
+            getElement().setAttribute("resume-target", new ResumeHandler(store));
+        }
+    }
+
+    private class ResumeHandler implements ElementRequestHandler {
+
+        private final ChunkStore store;
+
+        private ResumeHandler(ChunkStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public void handleRequest(VaadinRequest request, VaadinResponse response, VaadinSession session,
+                                  Element owner) throws IOException {
+            if(!"POST".equalsIgnoreCase(request.getMethod())) {
+                response.setStatus(405);
+                return;
+            }
+            String id = request.getHeader("X-Upload-Id");
+            if(id == null || id.isEmpty()) {
+                if(fileCount >= maxFileCount) {
+                    response.setStatus(403);
+                    return;
+                }
+                response.setHeader("X-Upload-Id", store.begin());
+                response.setHeader("X-Upload-Received", "0");
+                response.setStatus(200);
+                return;
+            }
+            long received = store.getReceived(id);
+            if(received < 0) {
+                response.setStatus(404);
+                return;
+            }
+            String offset = request.getHeader("X-Upload-Offset");
+            if(offset == null) {
+                response.setHeader("X-Upload-Received", String.valueOf(received));
+                response.setStatus(200);
+                return;
+            }
+            LimitedInputStream in = new LimitedInputStream(request.getInputStream(), getMaxFileSize() - received);
+            try {
+                received = store.append(id, Long.parseLong(offset.trim()), in);
+            } catch(NumberFormatException | IOException e) {
+                if(in.count > in.limit) { // Too large
+                    store.discard(id);
+                    response.setStatus(413);
+                    return;
+                }
+                response.setHeader("X-Upload-Received", String.valueOf(Math.max(0, store.getReceived(id))));
+                response.setStatus(409);
+                return;
+            }
+            response.setHeader("X-Upload-Received", String.valueOf(received));
+            if(!"true".equalsIgnoreCase(request.getHeader("X-Upload-Complete"))) {
+                response.setStatus(200);
+                return;
+            }
+            String name = request.getHeader("X-Filename"), type = request.getContentType();
+            if (application != null) {
+                application.startPolling(UploadField.this);
+            }
+            try {
+                process(store, id, type, name);
+                if(getU() != null) {
+                    ui.access(() -> {
+                        ++fileCount;
+                        inf(null);
+                    });
+                }
+                response.setStatus(200);
+            } catch(Throwable error) {
+                if(processErrorConsumer != null) {
+                    processErrorConsumer.accept(error);
+                } else if(application != null) {
+                    application.log("Error processing " + name, error);
+                }
+                response.setStatus(500);
+            } finally {
+                if (application != null) {
+                    application.stopPolling(UploadField.this);
+                }
+            }
+        }
+    }
+
+    private boolean isDuplicate(String hash) {
+        return hash != null && duplicateChecker != null && duplicateChecker.test(hash);
+    }
+
+    /**
+     * Set a "duplicate checker". If set, a SHA-256 digest of the content is computed while it is being received
+     * (the content is spooled to a temporary file) and the checker is invoked with the digest (hexadecimal string)
+     * before processing. If the checker returns <code>true</code>, the content is considered as already seen and
+     * its processing is skipped (it is still counted as a successful upload).
+     *
+     * @param duplicateChecker Duplicate checker.
+     */
+    public void setDuplicateChecker(Predicate<String> duplicateChecker) {
+        this.duplicateChecker = duplicateChecker;
+    }
+
+    /**
+     * Get the SHA-256 digest (hexadecimal string) of the content that is being processed. This could be called
+     * from within the "processor" if required. The digest is available only if a "duplicate checker" is set
+     * (see {@link #setDuplicateChecker(Predicate)}) or if the content was received via a {@link ChunkStore}.
+     *
+     * @return SHA-256 digest or <code>null</code> if not available.
+     */
+    public String getContentHash() {
+        String hash = workerHash.get();
+        if(hash != null) {
+            return hash.isEmpty() ? null : hash;
+        }
+        return contentHash;
+    }
+
     /**
      * Get the name of the file that is being processed. This could be called from within the "processor" if required.
      * @return File name
      */
     public String getFileName() {
-        return fileName;
+        String name = workerFileName.get();
+        return name == null ? fileName : name;
+    }
+
+    /**
+     * Set a "channel processor" to process the content as a {@link ReadableByteChannel}. If set, this is used
+     * instead of the processor passed to the constructor.
+     *
+     * @param channelProcessor Channel processor (Parameters: content, mime type)
+     */
+    public void setChannelProcessor(BiConsumer<ReadableByteChannel, String> channelProcessor) {
+        this.channelProcessor = channelProcessor;
+    }
+
+    /**
+     * Set the "spooling" mode. In spooling mode, the content is first written to a temporary file in large chunks
+     * and the processor gets the content from that file. The temporary file is deleted after processing.
+     *
+     * @param spooling True to switch on spooling.
+     */
+    public void setSpooling(boolean spooling) {
+        this.spooling = spooling;
+    }
+
+    /**
+     * Check whether the "spooling" mode is on or not.
+     *
+     * @return True/false.
+     */
+    public boolean isSpooling() {
+        return spooling;
+    }
+
+    /**
+     * Set the maximum size of a file that can be uploaded. The limit is checked by the browser and is enforced
+     * on the server too.
+     *
+     * @param maxFileSize Maximum file size in bytes.
+     */
+    public void setMaxFileSize(long maxFileSize) {
+        this.maxFileSize = maxFileSize <= 0 ? Long.MAX_VALUE : maxFileSize;
+        upload.setMaxFileSize((int) Math.min(this.maxFileSize, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Get the maximum size of a file that can be uploaded. If the limit was changed directly on the {@link Upload}
+     * component (see {@link #getUploadComponent()}), that limit is returned (and is enforced on the server too).
+     *
+     * @return Maximum file size in bytes.
+     */
+    public long getMaxFileSize() {
+        int limit = upload.getMaxFileSize();
+        if(limit != (int) Math.min(maxFileSize, Integer.MAX_VALUE)) { // Changed via the Upload component
+            maxFileSize = limit <= 0 ? Long.MAX_VALUE : limit;
+        }
+        return maxFileSize;
+    }
+
+    /**
+     * Set the default maximum file size for the upload fields created after this call.
+     *
+     * @param maxFileSize Maximum file size in bytes (Default is 10,000,000 bytes).
+     */
+    public static void setDefaultMaxFileSize(long maxFileSize) {
+        defaultMaxFileSize = maxFileSize;
+    }
+
+    /**
+     * Set the parallel processing mode. In this mode, each uploaded file is spooled to a temporary file and then
+     * processed by a pool of worker threads. If all the workers are busy and the queue is full, further uploads are
+     * held back until a slot is free. The processor is invoked from the worker threads and hence, it must be
+     * thread-safe and must not access the UI directly. (Results of the processing can be obtained in batches via
+     * {@link #setResultConsumer(Consumer)}). The worker threads are shut down when this field is detached (files
+     * already received are still processed) and are created again when needed.
+     *
+     * @param concurrency Maximum number of files to process concurrently. Zero or negative value switches off
+     *                    the parallel mode.
+     */
+    public void setParallelProcessing(int concurrency) {
+        shutdownWorkers();
+        parallel = Math.max(concurrency, 0);
+        if(parallel > 0) {
+            slots = new Semaphore(parallel * 2);
+        } else {
+            slots = null;
+        }
+    }
+
+    /**
+     * Get the maximum number of files that are processed concurrently. See {@link #setParallelProcessing(int)}.
+     *
+     * @return Zero if parallel processing is not on.
+     */
+    public int getParallelProcessing() {
+        return parallel;
+    }
+
+    /**
+     * Set a consumer to receive the results of processing in the parallel mode. The results are delivered in batches
+     * with the UI locked.
+     *
+     * @param resultConsumer Result consumer.
+     */
+    public void setResultConsumer(Consumer<List<Result>> resultConsumer) {
+        this.resultConsumer = resultConsumer;
     }
 
     /**
@@ -284,4 +830,90 @@ public class UploadField extends CustomField<Integer> {
     public void setProcessErrorConsumer(Consumer<Throwable> processErrorConsumer) {
         this.processErrorConsumer = processErrorConsumer;
     }
+
+    /**
+     * Result of processing a file in the parallel mode. See {@link #setParallelProcessing(int)}.
+     *
+     * @author Syam
+     */
+    public static final class Result {
+
+        private final String fileName;
+        private final Throwable error;
+
+        private Result(String fileName, Throwable error) {
+            this.fileName = fileName;
+            this.error = error;
+        }
+
+        /**
+         * Get the name of the file.
+         *
+         * @return File name.
+         */
+        public String getFileName() {
+            return fileName;
+        }
+
+        /**
+         * Get the error occurred while processing the file.
+         *
+         * @return Error if any, otherwise <code>null</code>.
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        /**
+         * Check whether the file was processed successfully or not.
+         *
+         * @return True if processed successfully.
+         */
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    private static class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count = 0;
+
+        private LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if(b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if(n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long n) throws IOException {
+            count += n;
+            if(count > limit) {
+                throw new IOException("File size exceeds the limit of " + limit + " bytes");
+            }
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.storedobject.vaadin;
 import com.storedobject.helper.ID;
 import com.storedobject.helper.LitComponent;
 import com.storedobject.vaadin.util.MediaStreamVariable;
+import com.storedobject.vaadin.util.SlicedMediaStreamVariable;
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.ClientCallable;
 import com.vaadin.flow.component.DetachEvent;
@@ -34,6 +35,7 @@ public class VideoCapture extends Video implements MediaCapture {
     private boolean frontCamera = false;
     private List<StatusChangeListener> statusChangeListeners;
     private Application application;
+    private int timeSlice = 0;
 
     /**
      * Constructor.
@@ -141,6 +143,33 @@ public class VideoCapture extends Video implements MediaCapture {
         camera.showPreview();
     }
 
+    /**
+     * Set the options for the pictures taken from the video stream. The picture is scaled down (preserving the
+     * aspect ratio) on the client so that it fits within the given width and height before it is sent to the
+     * server. (Use {@link SnapshotPipeline} as the "data receiver" to produce derived images of different sizes
+     * on the server).
+     *
+     * @param maxWidth Maximum width in pixels (0 means no limit).
+     * @param maxHeight Maximum height in pixels (0 means no limit).
+     * @param mimeType Format of the picture ("image/jpeg" or "image/png"). Default is "image/jpeg". (Other formats
+     *                 are not supported because the pictures can not be decoded on the server).
+     * @param quality Quality (0 to 1) for lossy formats. Default is 0.95.
+     * @throws IllegalArgumentException If the format is not supported.
+     */
+    public void setPictureOptions(int maxWidth, int maxHeight, String mimeType, double quality) {
+        if(mimeType == null || mimeType.isEmpty()) {
+            mimeType = "image/jpeg";
+        } else if(!mimeType.equals("image/jpeg") && !mimeType.equals("image/png")) {
+            throw new IllegalArgumentException("Unsupported picture format: " + mimeType);
+        }
+        Map<String, Object> options = new HashMap<>();
+        options.put("width", Math.max(0, maxWidth));
+        options.put("height", Math.max(0, maxHeight));
+        options.put("format", mimeType);
+        options.put("quality", Math.min(1.0, Math.max(0.05, quality)));
+        camera.setPictureOptions(options);
+    }
+
     /**
      * Take snap-shot from the video stream and show that picture on the already attached image component
      * {@link #attachImage(Image)}. The output will be visible only if the previewing is already active.
@@ -168,7 +197,7 @@ public class VideoCapture extends Video implements MediaCapture {
      * @param dataReceiver Data receiver to receive the picture stream
      */
     public void savePicture(DataReceiver dataReceiver) {
-        camera.setReceiver(dataReceiver);
+        camera.setReceiver(dataReceiver, false);
         camera.takePicture(null,true);
     }
 
@@ -181,7 +210,7 @@ public class VideoCapture extends Video implements MediaCapture {
      * @param dataReceiver Data receiver to receive the picture stream
      */
     public void savePicture(com.vaadin.flow.component.html.Image image, DataReceiver dataReceiver) {
-        camera.setReceiver(dataReceiver);
+        camera.setReceiver(dataReceiver, false);
         camera.takePicture(image,true);
     }
 
@@ -192,7 +221,7 @@ public class VideoCapture extends Video implements MediaCapture {
      */
     @Override
     public void startRecording(DataReceiver dataReceiver) {
-        camera.setReceiver(dataReceiver);
+        camera.setReceiver(dataReceiver, true);
         camera.startRecording();
     }
 
@@ -206,6 +235,31 @@ public class VideoCapture extends Video implements MediaCapture {
         return camera.recording == 1;
     }
 
+    /**
+     * Set the time-slice for recording. If set to a positive value, the recording is sent to the server in chunks
+     * as it progresses and the chunks are appended to the output stream of the "data receiver" in order. This is
+     * useful for long recordings because the content is not held on the client till the end and a failed chunk is
+     * posted again (a few times). However, if a chunk can not be posted at all (for example, when the connection
+     * breaks for a long time), the recording is aborted (see {@link SlicedMediaStreamVariable}).
+     *
+     * @param millis Duration of each chunk in milliseconds. Zero or negative value switches off time-slicing.
+     */
+    @Override
+    public void setTimeSlice(int millis) {
+        timeSlice = Math.max(0, millis);
+        camera.getElement().setProperty("timeslice", timeSlice);
+    }
+
+    /**
+     * Get the time-slice for recording.
+     *
+     * @return Duration of each chunk in milliseconds. Zero means time-slicing is not used.
+     */
+    @Override
+    public int getTimeSlice() {
+        return timeSlice;
+    }
+
     /**
      * Stop the recording of the video stream that may be currently in progress.
      */
@@ -311,6 +365,10 @@ public class VideoCapture extends Video implements MediaCapture {
             getElement().setPropertyJson("recordingOptions", toJson(recordingOptions, factory));
         }
 
+        private void setPictureOptions(Map<String, Object> pictureOptions) {
+            getElement().setPropertyJson("pictureOptions", toJson(pictureOptions, new JreJsonFactory()));
+        }
+
         private JsonValue toJson(Map<String, Object> map, JsonFactory factory) {
             JsonObject obj = factory.createObject();
             for (Map.Entry<String, Object> entry: map.entrySet()) {
@@ -332,9 +390,14 @@ public class VideoCapture extends Video implements MediaCapture {
             return obj;
         }
 
-        private void setReceiver(DataReceiver receiver) {
+        /*
+         * Only recordings are sent in slices (pictures are always sent in one go).
+         */
+        private void setReceiver(DataReceiver receiver, boolean recording) {
             getElement().setAttribute("target", new StreamReceiver(getElement().getNode(),
-                    "camera" + ID.newID(), new MediaStreamVariable(receiver)));
+                    "camera" + ID.newID(), recording && timeSlice > 0
+                    ? new SlicedMediaStreamVariable(receiver, Math.max(60000L, 4L * timeSlice))
+                    : new MediaStreamVariable(receiver)));
         }
 
         private void startRecording() {
@@ -38,6 +38,8 @@ public class View implements ExecutableView {
     private Application application;
     private ApplicationMenuItem menuItem;
     private Object createdBy;
+    private boolean hibernated = false;
+    private Element hibernatedParent;
     /**
      * Window decorator when this is a {@link Window}.
      */
@@ -606,15 +608,18 @@ public class View implements ExecutableView {
         if(this.parent != null && parent != null && this.parent != parent) {
             return;
         }
+        long start = System.nanoTime();
         this.parent = parent == null ? null : parent.getView(true);
         aborted = false;
         if(openedListeners != null) {
             openedListeners.forEach(listener -> listener.viewOpening(this));
         }
-        getApplication().execute(getView(true), doNotLock, this.parent);
+        Application a = getApplication();
+        a.execute(getView(true), doNotLock, this.parent);
         if(openedListeners != null) {
             openedListeners.forEach(listener -> listener.viewOpened(this));
         }
+        a.getMetrics().record(ApplicationMetrics.VIEW_EXECUTE, System.nanoTime() - start);
     }
 
     /**
@@ -683,6 +688,8 @@ public class View implements ExecutableView {
     }
 
     private void closeInt() {
+        hibernated = false;
+        hibernatedParent = null;
         if(windowMonitor != null) {
             windowMonitor.remove();
             windowMonitor = null;
@@ -703,6 +710,89 @@ public class View implements ExecutableView {
         }
     }
 
+    /**
+     * Check whether this view can be hibernated when it is not selected for a while. Hibernation happens only if
+     * the {@link Application} has a hibernation policy set via {@link Application#setViewHibernation(int, int)}.
+     * Views that are displayed as windows ({@link Dialog}s) are never hibernated.
+     *
+     * @return True if this view can be hibernated. Default implementation returns <code>true</code>.
+     */
+    public boolean canHibernate() {
+        return true;
+    }
+
+    /**
+     * Check whether this view is currently hibernated.
+     *
+     * @return True or false.
+     */
+    public final boolean isHibernated() {
+        return hibernated;
+    }
+
+    /**
+     * This method is invoked just before this view is hibernated. The component of the view will be detached from
+     * the UI after this call and will be attached again when the view is selected. Override this to release data
+     * that can be reloaded later (for example, items of a grid). The default implementation does nothing.
+     */
+    protected void hibernate() {
+    }
+
+    /**
+     * This method is invoked when a hibernated view is selected again and its component is re-attached to the UI.
+     * Override this to reload the data that was released in {@link #hibernate()}.
+     * The default implementation does nothing.
+     */
+    protected void rehydrate() {
+    }
+
+    /**
+     * For internal use only.
+     *
+     * @return True if the view was hibernated.
+     */
+    boolean hibernateInt() {
+        if(hibernated || component == null || component instanceof Dialog || !canHibernate()) {
+            return false;
+        }
+        Element p = parent();
+        if(p == null) {
+            return false;
+        }
+        hibernate();
+        hibernatedParent = p;
+        component.getElement().removeFromParent();
+        hibernated = true;
+        return true;
+    }
+
+    /**
+     * For internal use only.
+     */
+    void rehydrateInt() {
+        if(!hibernated) {
+            return;
+        }
+        hibernated = false;
+        Element p = hibernatedParent;
+        hibernatedParent = null;
+        if(p != null && parent() == null) {
+            p.appendChild(component.getElement());
+        }
+        rehydrate();
+    }
+
+    /**
+     * Run a job in the background with this view as the owner. A progress indicator is displayed while the job
+     * is running and the job is cancelled if this view is closed or aborted. See {@link BackgroundTask}.
+     *
+     * @param job Job to run.
+     * @return The task that is created to run the job.
+     */
+    public BackgroundTask runInBackground(BackgroundTask.Job job) {
+        return getApplication().runInBackground(this, getCaption(), job);
+    }
+
     /**
      * Add a "view opened listener". The {@link ViewOpenedListener#viewOpened(View)} will be invoked whenever this
      * view is executed.
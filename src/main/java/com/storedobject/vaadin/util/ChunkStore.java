@@ -0,0 +1,301 @@
+package com.storedobject.vaadin.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A server-side store for receiving the content of a file in chunks so that an interrupted upload can be resumed
+ * from where it stopped. Each upload is identified by an "upload id" (see {@link #begin()}) and chunks must be
+ * appended in order (see {@link #append(String, long, InputStream)}). The number of bytes already received can be
+ * obtained via {@link #getReceived(String)} for resuming an upload.
+ * <p>A SHA-256 digest of the content is computed while the chunks are received and is available once the upload
+ * is completed (see {@link #complete(String)}). The content can then be read via {@link #open(String)} that returns
+ * a channel that reads the chunks one after the other, without re-assembling them into a single file.</p>
+ * <p>{@link com.storedobject.vaadin.UploadField#setResumable(ChunkStore)} provides an HTTP endpoint that receives the
+ * chunks into a store.</p>
+ *
+ * @author Syam
+ */
+public class ChunkStore {
+
+    private static final int BUFFER_SIZE = 1 << 18;
+    private final Path directory;
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param directory Directory where the chunks are stored.
+     * @throws IOException If the directory can not be created.
+     */
+    public ChunkStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Begin a new upload.
+     *
+     * @return Upload id.
+     */
+    public String begin() {
+        String id = UUID.randomUUID().toString().replace("-", "");
+        uploads.put(id, new Upload());
+        return id;
+    }
+
+    /**
+     * Get the number of bytes received so far for an upload. An interrupted upload should be resumed from this
+     * offset.
+     *
+     * @param uploadId Upload id.
+     * @return Number of bytes received. (-1 is returned if the upload id is not known).
+     */
+    public long getReceived(String uploadId) {
+        Upload upload = uploads.get(uploadId);
+        return upload == null ? -1 : upload.received;
+    }
+
+    /**
+     * Append a chunk to an upload.
+     *
+     * @param uploadId Upload id.
+     * @param offset Offset of this chunk in the content. It must be the same as the number of bytes already received.
+     * @param chunk Content of the chunk.
+     * @return Number of bytes received so far (including this chunk).
+     * @throws IOException If the upload id is not known, already completed, offset is wrong or any I/O error occurs.
+     */
+    public long append(String uploadId, long offset, InputStream chunk) throws IOException {
+        Upload upload = upload(uploadId);
+        MessageDigest digest;
+        synchronized(upload) {
+            check(upload, uploadId, offset);
+            try {
+                digest = (MessageDigest) upload.digest.clone();
+            } catch(CloneNotSupportedException e) {
+                throw new IOException(e);
+            }
+        }
+        // The chunk is received without holding the lock so that a stalled request doesn't block the others
+        Path file = Files.createTempFile(directory, uploadId + ".", ".chunk");
+        long size = 0;
+        try {
+            try(FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                ByteBuffer bb = ByteBuffer.wrap(buffer);
+                int n;
+                while((n = chunk.read(buffer)) != -1) {
+                    digest.update(buffer, 0, n);
+                    bb.clear().limit(n);
+                    while(bb.hasRemaining()) {
+                        out.write(bb);
+                    }
+                    size += n;
+                }
+            }
+            synchronized(upload) {
+                // Another request might have appended the same chunk or the upload might have been discarded
+                check(upload, uploadId, offset);
+                if(uploads.get(uploadId) != upload) {
+                    throw new IOException("Unknown upload - " + uploadId);
+                }
+                upload.chunks.add(file);
+                upload.digest = digest;
+                upload.received += size;
+                upload.touched = System.currentTimeMillis();
+                return upload.received;
+            }
+        } catch(IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private static void check(Upload upload, String uploadId, long offset) throws IOException {
+        if(upload.hash != null) {
+            throw new IOException("Upload already completed - " + uploadId);
+        }
+        if(offset != upload.received) {
+            throw new IOException("Invalid offset " + offset + ", expected " + upload.received);
+        }
+    }
+
+    /**
+     * Complete an upload. No more chunks can be appended after this.
+     *
+     * @param uploadId Upload id.
+     * @return SHA-256 digest of the content as a hexadecimal string.
+     * @throws IOException If the upload id is not known.
+     */
+    public String complete(String uploadId) throws IOException {
+        Upload upload = upload(uploadId);
+        synchronized(upload) {
+            if(upload.hash == null) {
+                upload.hash = hex(upload.digest.digest());
+            }
+            return upload.hash;
+        }
+    }
+
+    /**
+     * Get the SHA-256 digest of a completed upload.
+     *
+     * @param uploadId Upload id.
+     * @return SHA-256 digest as a hexadecimal string or <code>null</code> if the upload is not yet completed.
+     */
+    public String getHash(String uploadId) {
+        Upload upload = uploads.get(uploadId);
+        return upload == null ? null : upload.hash;
+    }
+
+    /**
+     * Open a channel to read the content of an upload. The channel reads the chunks one after the other.
+     *
+     * @param uploadId Upload id.
+     * @return Channel to read the content.
+     * @throws IOException If the upload id is not known or any I/O error occurs.
+     */
+    public ReadableByteChannel open(String uploadId) throws IOException {
+        Upload upload = upload(uploadId);
+        List<Path> chunks;
+        synchronized(upload) {
+            chunks = new ArrayList<>(upload.chunks);
+        }
+        return new ChunkChannel(chunks);
+    }
+
+    /**
+     * Discard an upload and delete its chunks.
+     *
+     * @param uploadId Upload id.
+     */
+    public void discard(String uploadId) {
+        Upload upload = uploads.remove(uploadId);
+        if(upload == null) {
+            return;
+        }
+        synchronized(upload) {
+            for(Path p: upload.chunks) {
+                try {
+                    Files.deleteIfExists(p);
+                } catch(IOException ignored) {
+                }
+            }
+            upload.chunks.clear();
+        }
+    }
+
+    /**
+     * Discard all the uploads that are not touched for the given period.
+     *
+     * @param ageInMillis Age in milliseconds.
+     */
+    public void expire(long ageInMillis) {
+        long limit = System.currentTimeMillis() - ageInMillis;
+        new ArrayList<>(uploads.keySet()).forEach(id -> {
+            Upload upload = uploads.get(id);
+            if(upload != null && upload.touched < limit) {
+                discard(id);
+            }
+        });
+    }
+
+    private Upload upload(String uploadId) throws IOException {
+        Upload upload = uploadId == null ? null : uploads.get(uploadId);
+        if(upload == null) {
+            throw new IOException("Unknown upload - " + uploadId);
+        }
+        return upload;
+    }
+
+    /**
+     * Convert bytes to a hexadecimal string.
+     *
+     * @param bytes Bytes to convert.
+     * @return Hexadecimal string.
+     */
+    public static String hex(byte[] bytes) {
+        StringBuilder s = new StringBuilder(bytes.length << 1);
+        for(byte b: bytes) {
+            s.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return s.toString();
+    }
+
+    /**
+     * Create a SHA-256 message digest.
+     *
+     * @return Message digest.
+     */
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Upload {
+
+        private final List<Path> chunks = new ArrayList<>();
+        private MessageDigest digest = sha256();
+        private volatile long received = 0;
+        private volatile long touched = System.currentTimeMillis();
+        private volatile String hash;
+    }
+
+    private static class ChunkChannel implements ReadableByteChannel {
+
+        private final Iterator<Path> chunks;
+        private FileChannel current;
+        private boolean open = true;
+
+        private ChunkChannel(List<Path> chunks) {
+            this.chunks = chunks.iterator();
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if(!open) {
+                throw new ClosedChannelException();
+            }
+            while(true) {
+                if(current == null) {
+                    if(!chunks.hasNext()) {
+                        return -1;
+                    }
+                    current = FileChannel.open(chunks.next(), StandardOpenOption.READ);
+                }
+                int n = current.read(dst);
+                if(n != -1) {
+                    return n;
+                }
+                current.close();
+                current = null;
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            open = false;
+            if(current != null) {
+                current.close();
+                current = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.storedobject.vaadin.util;
+
+import java.time.LocalDate;
+import java.util.TimeZone;
+
+/**
+ * Allocation-light conversion between {@link LocalDate} and {@link java.util.Date} based on epoch-day arithmetic.
+ * No {@link java.util.Calendar} is created for the conversion.
+ * <p>A {@link java.sql.Date} created from a {@link LocalDate} represents the midnight (GMT) of that day and the
+ * day of a {@link java.util.Date} is determined in the default time zone (this is how {@link java.util.Calendar}
+ * based conversion used to work). Offsets of the default time zone are cached per day so that they are not looked
+ * up again for dates on the same day. If the default time zone is changed, {@link #reset()} should be invoked.</p>
+ * <p>Note: Dates are treated as "proleptic Gregorian" dates (no Julian calendar dates before 1582).</p>
+ *
+ * @author Syam
+ */
+public final class DateConverter {
+
+    private static final long DAY = 86400000L, MAX_DAY = 1L << 35;
+    private static final int SLOTS = 1024;
+    private static volatile Zone zone;
+
+    private DateConverter() {
+    }
+
+    /**
+     * Create a {@link java.sql.Date} from a {@link LocalDate}.
+     *
+     * @param date Date to convert.
+     * @return Converted value (<code>null</code> if the date passed was <code>null</code>).
+     */
+    public static java.sql.Date toDate(LocalDate date) {
+        return date == null ? null : new java.sql.Date(date.toEpochDay() * DAY);
+    }
+
+    /**
+     * Create a {@link java.sql.Date} from a {@link LocalDate}. If the year of the date is less than 100, the epoch
+     * value is added to it.
+     *
+     * @param date Date to convert.
+     * @param epoch Epoch value to adjust the year.
+     * @return Converted value (<code>null</code> if the date passed was <code>null</code>).
+     */
+    public static java.sql.Date toDate(LocalDate date, int epoch) {
+        if(date == null) {
+            return null;
+        }
+        if(date.getYear() < 100 && epoch != 0) {
+            date = date.withYear(date.getYear() + epoch);
+        }
+        return new java.sql.Date(date.toEpochDay() * DAY);
+    }
+
+    /**
+     * Create a {@link LocalDate} from a {@link java.util.Date}. The day is determined in the default time zone.
+     *
+     * @param date Date to convert.
+     * @return Converted value (<code>null</code> if the date passed was <code>null</code>).
+     */
+    public static LocalDate toLocalDate(java.util.Date date) {
+        return date == null ? null : LocalDate.ofEpochDay(toEpochDay(date.getTime()));
+    }
+
+    /**
+     * Get the epoch day (number of days since 1970-01-01) of the given time. The day is determined in the default
+     * time zone.
+     *
+     * @param millis Time in milliseconds since epoch.
+     * @return Epoch day.
+     */
+    public static long toEpochDay(long millis) {
+        return Math.floorDiv(millis + offset(millis), DAY);
+    }
+
+    /**
+     * Get the year of a {@link java.util.Date}. The day is determined in the default time zone.
+     *
+     * @param date Date.
+     * @return Year.
+     */
+    public static int getYear(java.util.Date date) {
+        return LocalDate.ofEpochDay(toEpochDay(date.getTime())).getYear();
+    }
+
+    /**
+     * Format a {@link java.util.Date} as "yyyy-mm-dd". The result is the same as that of
+     * {@link java.sql.Date#toString()}.
+     *
+     * @param date Date to format.
+     * @return Formatted value (empty string if the date passed was <code>null</code>).
+     */
+    public static String format(java.util.Date date) {
+        if(date == null) {
+            return "";
+        }
+        LocalDate d = LocalDate.ofEpochDay(toEpochDay(date.getTime()));
+        int year = d.getYear(), month = d.getMonthValue(), day = d.getDayOfMonth();
+        if(year < 0 || year > 9999) {
+            return d.toString();
+        }
+        char[] c = new char[10];
+        c[0] = (char) ('0' + year / 1000);
+        c[1] = (char) ('0' + (year / 100) % 10);
+        c[2] = (char) ('0' + (year / 10) % 10);
+        c[3] = (char) ('0' + year % 10);
+        c[4] = '-';
+        c[5] = (char) ('0' + month / 10);
+        c[6] = (char) ('0' + month % 10);
+        c[7] = '-';
+        c[8] = (char) ('0' + day / 10);
+        c[9] = (char) ('0' + day % 10);
+        return new String(c);
+    }
+
+    /**
+     * Clear the cached time zone information. This should be invoked if the default time zone is changed.
+     */
+    public static void reset() {
+        zone = null;
+    }
+
+    private static int offset(long millis) {
+        Zone z = zone;
+        if(z == null) {
+            z = new Zone(TimeZone.getDefault());
+            zone = z;
+        }
+        if(z.fixed) {
+            return z.offset;
+        }
+        long day = Math.floorDiv(millis, DAY);
+        if(day >= -MAX_DAY && day < MAX_DAY) {
+            int slot = (int) (day & (SLOTS - 1));
+            long entry = z.days[slot];
+            if(entry != 0 && (entry >> 27) == day) {
+                return (int) (entry & 0x7FFFFFF) - (1 << 26);
+            }
+            // Cache only if the offset is the same for the whole day (no transition in-between)
+            int offset = z.timeZone.getOffset(day * DAY);
+            if(offset == z.timeZone.getOffset(day * DAY + DAY - 1)) {
+                z.days[slot] = (day << 27) | (offset + (1 << 26));
+                return offset;
+            }
+        }
+        return z.timeZone.getOffset(millis);
+    }
+
+    private static class Zone {
+
+        private final TimeZone timeZone;
+        private final boolean fixed;
+        private final int offset;
+        private final long[] days = new long[SLOTS];
+
+        private Zone(TimeZone timeZone) {
+            this.timeZone = timeZone;
+            fixed = timeZone.toZoneId().getRules().isFixedOffset();
+            offset = timeZone.getRawOffset();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.storedobject.vaadin.util;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Thread-safe formatting of numbers with country-specific digit grouping. The underlying {@link DecimalFormat}s are
+ * created only once per thread for each number of decimals and the digits are grouped directly while building the
+ * result (no post-processing of the formatted string is done).
+ * <p>Grouping styles: "IN" - the last 3 digits and then groups of 2 digits (12,34,567), "CN" - groups of 2 digits
+ * (1,23,45,67), others - groups of 3 digits with the grouping separator of the default locale.</p>
+ * <p>This is used by the {@link NumericField} family and can be used for displaying numbers elsewhere (for
+ * example, in grid cells).</p>
+ *
+ * @author Syam
+ */
+public final class NumberFormatter {
+
+    private static final ThreadLocal<Map<Integer, DecimalFormat>> formats = ThreadLocal.withInitial(HashMap::new);
+
+    private NumberFormatter() {
+    }
+
+    /**
+     * Format a number.
+     *
+     * @param value Value to format (<code>null</code> is treated as zero).
+     * @param decimals Number of decimals. A negative value means "as many as required" up to the absolute value
+     *                 (-1 means up to 14 decimals).
+     * @param grouping Whether digits should be grouped or not.
+     * @param country Country code that determines the grouping style.
+     * @return Formatted value.
+     */
+    public static String format(Number value, int decimals, boolean grouping, String country) {
+        DecimalFormat format = formats.get().computeIfAbsent(decimals, NumberFormatter::create);
+        String s = format.format(value == null ? 0 : value);
+        if(!grouping) {
+            return s;
+        }
+        return group(s, format.getDecimalFormatSymbols(), country);
+    }
+
+    /**
+     * Format a number using the grouping style of the given country.
+     *
+     * @param value Value to format (<code>null</code> is treated as zero).
+     * @param decimals Number of decimals (see {@link #format(Number, int, boolean, String)}).
+     * @param country Country code that determines the grouping style.
+     * @return Formatted value.
+     */
+    public static String format(Number value, int decimals, String country) {
+        return format(value, decimals, true, country);
+    }
+
+    private static DecimalFormat create(int decimals) {
+        DecimalFormat format = (DecimalFormat) DecimalFormat.getNumberInstance();
+        format.setGroupingUsed(false);
+        format.setMaximumIntegerDigits(30);
+        format.setRoundingMode(RoundingMode.HALF_UP);
+        if(decimals < 0) {
+            format.setMinimumFractionDigits(decimals < -1 ? -decimals : 14);
+            format.setMaximumFractionDigits(decimals < -1 ? -decimals : 14);
+        } else {
+            format.setMinimumFractionDigits(decimals);
+            format.setMaximumFractionDigits(decimals);
+        }
+        return format;
+    }
+
+    private static String group(String s, DecimalFormatSymbols symbols, String country) {
+        int start = 0, n = s.length();
+        while(start < n && !Character.isDigit(s.charAt(start))) { // Sign
+            ++start;
+        }
+        int end = start;
+        while(end < n && Character.isDigit(s.charAt(end))) {
+            ++end;
+        }
+        int digits = end - start;
+        boolean indian = "IN".equals(country), chinese = !indian && "CN".equals(country);
+        int first = chinese ? 2 : 3, rest = indian || chinese ? 2 : 3;
+        if(digits <= first) {
+            return s;
+        }
+        char separator = indian || chinese ? ',' : symbols.getGroupingSeparator();
+        StringBuilder sb = new StringBuilder(n + digits / 2);
+        sb.append(s, 0, start);
+        int lead = (digits - first) % rest;
+        if(lead == 0) {
+            lead = rest;
+        }
+        int i = start;
+        sb.append(s, i, i + lead);
+        i += lead;
+        while(i < end - first) {
+            sb.append(separator).append(s, i, i + rest);
+            i += rest;
+        }
+        sb.append(separator).append(s, i, end).append(s, end, n);
+        return sb.toString();
+    }
+}
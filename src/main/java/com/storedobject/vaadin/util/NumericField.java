@@ -4,9 +4,6 @@ import com.storedobject.vaadin.Application;
 import com.storedobject.vaadin.CustomTextField;
 import com.vaadin.flow.component.textfield.TextField;
 
-import java.math.RoundingMode;
-import java.text.DecimalFormat;
-
 /**
  * An abstract class representing a numeric text field with support for various configurations,
  * such as grouping, allowance of negative values, formatting, and specified width constraints.
@@ -121,57 +118,7 @@ public abstract class NumericField<T extends Number> extends CustomTextField<T>
         if(value == null) {
             value = getEmptyValue();
         }
-        DecimalFormat format;
-        if("CN".equals(getCountry())) {
-            format = new DecimalFormat("##,##,##,#0.00");
-        } else {
-            format = (DecimalFormat) DecimalFormat.getNumberInstance();
-        }
-        format.setMaximumIntegerDigits(30);
-        format.setRoundingMode(RoundingMode.HALF_UP);
-        int decimals = getDecimals();
-        if (decimals < 0) {
-            format.setMinimumFractionDigits(decimals < -1 ? -decimals : 14);
-            format.setMaximumFractionDigits(decimals < -1 ? -decimals : 14);
-        } else {
-            format.setMinimumFractionDigits(decimals);
-            format.setMaximumFractionDigits(decimals);
-        }
-        String s = format.format(value);
-        if(grouping) {
-            if("IN".equals(getCountry())) {
-                return indianStyle(s);
-            }
-            return s;
-        }
-        return s.replace(",", "");
-    }
-
-    private static String indianStyle(String v) {
-        v = v.replace(",", "");
-        int i = v.indexOf('.');
-        StringBuilder s;
-        if(i >= 0) {
-            s = new StringBuilder(v.substring(i));
-            v = v.substring(0, i);
-        } else {
-            s = new StringBuilder();
-        }
-        if(v.length() <= 3) {
-            return v + s;
-        }
-        s.insert(0, v.substring(v.length() - 3));
-        v = v.substring(0, v.length() - 3);
-        while(v.length() > 0) {
-            s.insert(0, ",");
-            if(v.length() <= 2) {
-                s.insert(0, v);
-                break;
-            }
-            s.insert(0, v.substring(v.length() - 2));
-            v = v.substring(0, v.length() - 2);
-        }
-        return s.toString();
+        return NumberFormatter.format(value, getDecimals(), grouping, getCountry());
     }
 
     /**
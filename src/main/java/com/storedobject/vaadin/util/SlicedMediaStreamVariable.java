@@ -0,0 +1,272 @@
+package com.storedobject.vaadin.util;
+
+import com.storedobject.vaadin.MediaCapture;
+import com.vaadin.flow.server.StreamVariable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link StreamVariable} that receives a recording as a sequence of time-sliced chunks. Each chunk is posted
+ * separately by the client with a file name of the form "slice-&lt;sequence&gt;" (or "slice-&lt;sequence&gt;-last"
+ * for the final chunk). Chunks may arrive out of order (for example, when the client retries a failed post) and
+ * they are sequenced here before being appended, in order, to the output stream of the
+ * {@link MediaCapture.DataReceiver}. A chunk that fails in transit is discarded so that it can be posted again.
+ * <p>After each chunk is appended, the receiver is informed about the progress
+ * (see {@link MediaCapture.DataReceiver#progress(long, double)}).</p>
+ * <p>A recording with a missing chunk can not be used, so the recording is aborted (the output stream is closed
+ * and {@link MediaCapture.DataReceiver#aborted()} is invoked) if the client reports that it could not post a chunk
+ * (file name "slice-&lt;sequence&gt;-lost"), if too many chunks are waiting for a missing one or if no chunk arrives
+ * within the timeout (see {@link #SlicedMediaStreamVariable(MediaCapture.DataReceiver, long)}) while the recording
+ * is not yet complete.</p>
+ *
+ * @author Syam
+ */
+public class SlicedMediaStreamVariable implements StreamVariable {
+
+    private static final int MAX_PENDING = 64;
+    private final MediaCapture.DataReceiver receiver;
+    private final Map<Integer, byte[]> pending = new TreeMap<>();
+    private final ThreadLocal<Slice> current = new ThreadLocal<>();
+    private String mime;
+    private OutputStream out;
+    private int next = 0, last = -1;
+    private long bytes = 0, started = 0;
+    private int chunks = 0;
+    private volatile boolean aborted = false, finished = false;
+    private final long timeout;
+    private long lastArrival = 0;
+    private boolean watching = false;
+
+    /**
+     * Constructor. (The timeout is 1 minute).
+     *
+     * @param receiver Data receiver to receive the recording.
+     */
+    public SlicedMediaStreamVariable(MediaCapture.DataReceiver receiver) {
+        this(receiver, 60000L);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param receiver Data receiver to receive the recording.
+     * @param timeoutInMillis Timeout in milliseconds. The recording is aborted if no chunk arrives within this
+     *                        period once the first chunk is started (it should be a few times more than the
+     *                        duration of each chunk).
+     */
+    public SlicedMediaStreamVariable(MediaCapture.DataReceiver receiver, long timeoutInMillis) {
+        this.receiver = receiver;
+        this.timeout = Math.max(1000L, timeoutInMillis);
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        Slice slice = current.get();
+        return slice == null ? OutputStream.nullOutputStream() : slice.data;
+    }
+
+    @Override
+    public boolean isInterrupted() {
+        return aborted || finished;
+    }
+
+    @Override
+    public boolean listenProgress() {
+        return false;
+    }
+
+    @Override
+    public void onProgress(StreamingProgressEvent event) {
+    }
+
+    @Override
+    public void streamingStarted(StreamingStartEvent event) {
+        Slice slice = new Slice();
+        String name = event.getFileName();
+        if(name != null && name.startsWith("slice-")) {
+            name = name.substring(6);
+            if(name.endsWith("-lost")) {
+                slice.lost = true;
+                name = name.substring(0, name.length() - 5);
+            }
+            if(name.endsWith("-last")) {
+                slice.last = true;
+                name = name.substring(0, name.length() - 5);
+            }
+            try {
+                slice.sequence = Integer.parseInt(name);
+            } catch(NumberFormatException ignored) {
+            }
+        }
+        slice.mime = event.getMimeType();
+        current.set(slice);
+        arrived();
+    }
+
+    @Override
+    public void streamingFailed(StreamingErrorEvent event) {
+        current.remove(); // Discarded, client may post it again
+    }
+
+    @Override
+    public void streamingFinished(StreamingEndEvent event) {
+        Slice slice = current.get();
+        current.remove();
+        if(slice == null || slice.sequence < 0) {
+            return;
+        }
+        synchronized(this) {
+            if(aborted || finished || slice.sequence < next) {
+                return; // Duplicate
+            }
+            lastArrival = System.currentTimeMillis();
+            if(slice.lost) { // Client gave up posting it
+                abort();
+                return;
+            }
+            if(mime == null) {
+                mime = slice.mime;
+            }
+            if(slice.last) {
+                last = slice.sequence;
+            }
+            pending.put(slice.sequence, slice.data.toByteArray());
+            if(pending.size() > MAX_PENDING) {
+                abort();
+                return;
+            }
+            byte[] data;
+            while((data = pending.remove(next)) != null) {
+                if(!append(data)) {
+                    return;
+                }
+                ++next;
+            }
+            if(last >= 0 && next > last) {
+                finished = true;
+                try {
+                    out.close();
+                } catch(IOException ignored) {
+                }
+                receiver.finished();
+            }
+        }
+    }
+
+    private boolean append(byte[] data) {
+        try {
+            if(out == null) {
+                out = receiver.getOutputStream(mime);
+                started = System.nanoTime();
+            }
+            out.write(data);
+            out.flush();
+        } catch(IOException e) {
+            abort();
+            return false;
+        }
+        bytes += data.length;
+        ++chunks;
+        receiver.progress(bytes, getBytesPerSecond());
+        return true;
+    }
+
+    private void abort() {
+        aborted = true;
+        pending.clear();
+        if(out != null) {
+            try {
+                out.close();
+            } catch(IOException ignored) {
+            }
+        }
+        receiver.aborted();
+    }
+
+    private synchronized void arrived() {
+        lastArrival = System.currentTimeMillis();
+        if(!watching) {
+            watching = true;
+            watch(timeout);
+        }
+    }
+
+    private void watch(long delay) {
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(this::checkTimeout);
+    }
+
+    private synchronized void checkTimeout() {
+        if(aborted || finished) {
+            return;
+        }
+        long idle = System.currentTimeMillis() - lastArrival;
+        if(idle >= timeout) {
+            abort();
+        } else {
+            watch(timeout - idle);
+        }
+    }
+
+    /**
+     * Get the number of bytes appended so far.
+     *
+     * @return Number of bytes.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Get the number of chunks appended so far.
+     *
+     * @return Number of chunks.
+     */
+    public synchronized int getChunks() {
+        return chunks;
+    }
+
+    /**
+     * Get the number of chunks that arrived out of order and waiting for the missing ones.
+     *
+     * @return Number of chunks waiting.
+     */
+    public synchronized int getPending() {
+        return pending.size();
+    }
+
+    /**
+     * Get the average bandwidth since the first chunk was appended.
+     *
+     * @return Bytes per second.
+     */
+    public synchronized double getBytesPerSecond() {
+        if(started == 0) {
+            return 0;
+        }
+        long elapsed = System.nanoTime() - started;
+        return elapsed <= 0 ? 0 : bytes * 1_000_000_000.0 / elapsed;
+    }
+
+    /**
+     * Returns the MIME type associated with the streaming media.
+     *
+     * @return the MIME type as a String
+     */
+    public String getMime() {
+        return mime;
+    }
+
+    private static class Slice {
+
+        private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        private int sequence = -1;
+        private boolean last = false, lost = false;
+        private String mime;
+    }
+}
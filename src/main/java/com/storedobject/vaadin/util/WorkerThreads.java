@@ -0,0 +1,79 @@
+package com.storedobject.vaadin.util;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Helper class to create threads for background work. Virtual threads are used for all the work.
+ *
+ * @author Syam
+ */
+public final class WorkerThreads {
+
+    private static final ThreadFactory FACTORY = Thread.ofVirtual().factory();
+    private static final AtomicInteger COUNT = new AtomicInteger();
+
+    private WorkerThreads() {
+    }
+
+    /**
+     * Check whether virtual threads are used or not.
+     *
+     * @return Always true (kept for compatibility - virtual threads are always used).
+     */
+    public static boolean isVirtual() {
+        return true;
+    }
+
+    /**
+     * Create a new thread (not started).
+     *
+     * @param name Name prefix of the thread.
+     * @param work Work to be carried out by the thread.
+     * @return Newly created thread.
+     */
+    public static Thread create(String name, Runnable work) {
+        Thread t = FACTORY.newThread(work);
+        t.setName(name + "-" + COUNT.incrementAndGet());
+        return t;
+    }
+
+    /**
+     * Create and start a new thread.
+     *
+     * @param name Name prefix of the thread.
+     * @param work Work to be carried out by the thread.
+     * @return The thread that is started.
+     */
+    public static Thread start(String name, Runnable work) {
+        Thread t = create(name, work);
+        t.start();
+        return t;
+    }
+
+    /**
+     * Get a thread factory that creates worker threads.
+     *
+     * @param name Name prefix of the threads.
+     * @return Thread factory.
+     */
+    public static ThreadFactory factory(String name) {
+        return r -> create(name, r);
+    }
+
+    /**
+     * Create an executor that runs at most the given number of tasks at a time. Tasks submitted beyond that
+     * will be queued. Idle threads are released after a minute.
+     *
+     * @param name Name prefix of the threads.
+     * @param threads Maximum number of concurrent tasks.
+     * @return Executor service.
+     */
+    public static ExecutorService executor(String name, int threads) {
+        threads = Math.max(1, threads);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), factory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}